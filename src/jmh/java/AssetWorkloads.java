@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import benchmarks.Workload;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+// Workloads for loading and looking up sprites. They must run from the project directory.
+public class AssetWorkloads {
+    static final String ASSETS = "resources/Assets.json";
+
+    static final String[] GROUPS = {"bmp_skin_backdrop", "bmp_skin_backdrop_battle", "bmp_skin_battlemisc",
+            "bmp_skin_gemsgrid", "bmp_skin_buttmain", "bmp_skin_buttmisc"};
+
+    // ImageManager.parseJson, then decoding every bitmap. No group is precached, the screens acquire them.
+    public static class Parse implements Workload {
+        private String content;
+
+        public void setup() throws Exception {
+            content = new String(Files.readAllBytes(Paths.get(ASSETS)));
+        }
+
+        public long run() throws Exception {
+            ImageManager.parseJson(content);
+            ImageManager.acquire(GROUPS).join();
+            return ImageManager.getBitmapDataList("bmp_skin_gemsgrid").size();
+        }
+    }
+
+    // ImageManager.getImage(group, name) as used while building the scenes.
+    public static class GroupLookup implements Workload {
+        public void setup() throws Exception {
+            ImageManager.parseJsonFromFile(ASSETS);
+        }
+
+        public long run() {
+            return ImageManager.getImage("bmp_skin_buttmisc", "img_button_x_ovr").size.x;
+        }
+    }
+
+    // ImageManager.getImage(name), searching every group.
+    public static class NameLookup implements Workload {
+        public void setup() throws Exception {
+            ImageManager.parseJsonFromFile(ASSETS);
+        }
+
+        public long run() {
+            return ImageManager.getImage("img_button_x_ovr").size.x;
+        }
+    }
+
+    // ImageManager.getSpritesInRange for an animation.
+    public static class Range implements Workload {
+        public void setup() throws Exception {
+            ImageManager.parseJsonFromFile(ASSETS);
+        }
+
+        public long run() {
+            return ImageManager.getSpritesInRange("bmp_skin_battlemisc", "img_shieldred_0", "img_shieldred_8").size();
+        }
+    }
+}
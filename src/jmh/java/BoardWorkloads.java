@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import benchmarks.Workload;
+
+// Workloads for the board, moves, cascades and score rules.
+public class BoardWorkloads {
+    private static final int BOARDS = 256;
+    private static final GemType[] TYPES = GemType.values();
+
+    // Random boards, the same ones on every run.
+    private static BitBoard[] createBoards(long seed) {
+        Rng random = new Rng(seed);
+        BitBoard[] boards = new BitBoard[BOARDS];
+        for (int b = 0; b < BOARDS; b++) {
+            boards[b] = new BitBoard();
+            for (int i = 0; i < BitBoard.SIZE; i++) {
+                for (int j = 0; j < BitBoard.SIZE; j++) {
+                    boards[b].set(i, j, TYPES[random.nextInt(0, TYPES.length)]);
+                }
+            }
+        }
+        return boards;
+    }
+
+    // Grid.findMatches.
+    public static class FindMatches implements Workload {
+        private BitBoard[] boards;
+        private int next;
+
+        public void setup() {
+            boards = createBoards(1);
+        }
+
+        public long run() {
+            BitBoard board = boards[next++ & (BOARDS - 1)];
+            board.findMatches();
+            return board.getMatchMask();
+        }
+    }
+
+    // Grid.findAvailableMoves right after a swap changed the board.
+    public static class AvailableMoves implements Workload {
+        private BitBoard[] boards;
+        private MoveIndex[] moves;
+        private Rng random;
+        private int next;
+
+        public void setup() {
+            boards = createBoards(2);
+            moves = new MoveIndex[BOARDS];
+            for (int i = 0; i < BOARDS; i++) {
+                moves[i] = new MoveIndex(boards[i], BitBoard.SIZE, BitBoard.SIZE);
+            }
+            random = new Rng(3);
+        }
+
+        public long run() {
+            int index = next++ & (BOARDS - 1);
+            int row = random.nextInt(0, BitBoard.SIZE);
+            int column = random.nextInt(0, BitBoard.SIZE - 1);
+            boards[index].swap(row, column, row, column + 1);
+            return moves[index].hasMoves() ? 1 : 0;
+        }
+    }
+
+    // A scored swap followed by the drops, refills and cascades it causes.
+    public static class Cascade implements Workload {
+        private GameCore core;
+        private Rng random;
+        private final int[] moves = new int[MoveIndex.MAX_MOVES];
+
+        public void setup() {
+            core = new GameCore(BitBoard.SIZE, BitBoard.SIZE, 4);
+            core.newGame();
+            random = new Rng(5);
+        }
+
+        public long run() {
+            if (core.hasWinner()) {
+                core.newGame();
+            }
+            int count = core.getMoves().getMoves(moves);
+            core.swap(moves[random.nextInt(0, count)]);
+            return core.getCascadeCount();
+        }
+    }
+
+    // ScoreBoard.addGem.
+    public static class AddGem implements Workload {
+        private ScoreRules rules;
+        private Rng random;
+
+        public void setup() {
+            rules = new ScoreRules();
+            random = new Rng(6);
+        }
+
+        public long run() {
+            rules.addGem(TYPES[random.nextInt(0, TYPES.length)], random.nextInt(3, 6));
+            rules.clampHealth();
+            if (rules.anyPlayerWinner()) {
+                rules.reset();
+            }
+            return rules.currentPlayer;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import benchmarks.Workload;
+
+import java.io.File;
+import java.io.IOException;
+
+// Workloads for the save database, on scratch files instead of puzzle.db. Each workload has its
+// own file, the connection of the database stays open for the whole trial.
+public class DatabaseWorkloads {
+    private static final String DIRECTORY = "build/tmp/jmh-puzzle";
+
+    private static SaveData createSave(int seed) {
+        SaveData save = new SaveData();
+        for (int player = 0; player < SaveData.PLAYERS; player++) {
+            for (GemType gemType : GemType.values()) {
+                save.gems[player][gemType.ordinal()] = seed + gemType.ordinal() + player;
+            }
+            save.health[player] = save.maxHealth[player] = 50;
+        }
+        save.board = new byte[SaveData.CELLS];
+        for (int i = 0; i < save.board.length; i++) {
+            save.board[i] = (byte) ((seed + i) % GemType.values().length);
+        }
+        save.randomState = seed;
+        return save;
+    }
+
+    private static Database createDatabase(String name) throws IOException {
+        File file = new File(DIRECTORY, name + ".db");
+        file.getParentFile().mkdirs();
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            new File(file.getPath() + suffix).delete();
+        }
+        Database database = new Database(file.getPath());
+        database.create();
+        database.insert("save0", createSave(0));
+        return database;
+    }
+
+    // Insert, read back and delete a new save.
+    public static class Insert implements Workload {
+        private Database database;
+
+        public void setup() throws IOException {
+            database = createDatabase("insert");
+        }
+
+        public long run() throws IOException {
+            database.insert("save1", createSave(1));
+            SaveData data = database.getGems("save1");
+            database.delete("save1");
+            return data.health[0];
+        }
+
+        public void tearDown() {
+            database.close();
+        }
+    }
+
+    // Overwrite an existing save, like pressing Escape during a game.
+    public static class Update implements Workload {
+        private Database database;
+        private int seed;
+
+        public void setup() throws IOException {
+            database = createDatabase("update");
+        }
+
+        public long run() throws IOException {
+            database.update("save0", createSave(seed++));
+            return seed;
+        }
+
+        public void tearDown() {
+            database.close();
+        }
+    }
+
+    public static class Get implements Workload {
+        private Database database;
+
+        public void setup() throws IOException {
+            database = createDatabase("get");
+        }
+
+        public long run() {
+            return database.getGems("save0").health[0];
+        }
+
+        public void tearDown() {
+            database.close();
+        }
+    }
+}
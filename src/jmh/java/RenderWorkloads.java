@@ -0,0 +1,209 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import benchmarks.Workload;
+import org.joml.Vector2i;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Workloads drawing into an offscreen image the size of the window.
+public class RenderWorkloads {
+    private static Graphics2D createTarget() {
+        BufferedImage target = new BufferedImage(1024, 768, BufferedImage.TYPE_INT_RGB);
+        return target.createGraphics();
+    }
+
+    // Label.render with the shadow ScoreBoard uses for the gem counters.
+    public static class LabelText implements Workload {
+        private Graphics2D g;
+        private Label label;
+        private int value;
+
+        public void setup() {
+            g = createTarget();
+            label = new Label(new Vector2i(106, 260), "", 16);
+            label.shadowOffset = 2;
+        }
+
+        public long run() {
+            label.text = String.valueOf(value++ & 63);
+            label.render(g);
+            return value;
+        }
+
+        public void tearDown() {
+            g.dispose();
+        }
+    }
+
+    // Label.render with the outline and background of the grid messages.
+    public static class LabelMessage implements Workload {
+        private Graphics2D g;
+        private Label label;
+
+        public void setup() {
+            g = createTarget();
+            label = new Label(new Vector2i(365, 450), "No moves available", 40);
+            label.backgroundWidth = 10;
+            label.backgroundColor = new Color(0, 0, 0, 0.7f);
+            label.color = Color.CYAN;
+            label.outlineWidth = 5;
+        }
+
+        public long run() {
+            label.render(g);
+            return label.text.length();
+        }
+
+        public void tearDown() {
+            g.dispose();
+        }
+    }
+
+    // Sprite.render of a gem sized sprite.
+    public static class SpriteBlit implements Workload {
+        private Graphics2D g;
+        private Sprite sprite;
+        private final Vector2i position = new Vector2i(217, 133);
+
+        public void setup() throws Exception {
+            ImageManager.parseJsonFromFile(AssetWorkloads.ASSETS);
+            g = createTarget();
+            sprite = ImageManager.getImage("bmp_skin_gemsgrid", "img_gem_red");
+        }
+
+        public long run() {
+            sprite.render(g, position);
+            return sprite.size.x;
+        }
+
+        public void tearDown() {
+            g.dispose();
+        }
+    }
+
+    // Sprite.render of the rotating gem selector.
+    public static class SpriteRotated implements Workload {
+        private Graphics2D g;
+        private Sprite sprite;
+        private final Vector2i position = new Vector2i(217, 133);
+
+        public void setup() throws Exception {
+            ImageManager.parseJsonFromFile(AssetWorkloads.ASSETS);
+            g = createTarget();
+            sprite = ImageManager.getImage("bmp_skin_battlemisc", "img_selector_green");
+        }
+
+        public long run() {
+            sprite.angle = (sprite.angle + 1) % 360;
+            sprite.render(g, position, sprite.size);
+            return sprite.angle;
+        }
+
+        public void tearDown() {
+            g.dispose();
+        }
+    }
+
+    // A full board of gems in the order Grid draws them, with a row fading out.
+    private abstract static class Board implements Workload {
+        private static final String[] GEMS = {"img_gem_green", "img_gem_red", "img_gem_yellow", "img_gem_blue",
+                "img_gem_skull", "img_gem_exp", "img_gem_gold"};
+
+        protected Graphics2D g;
+        protected final Sprite[] sprites = new Sprite[64];
+        protected int frame;
+
+        public void setup() throws Exception {
+            ImageManager.parseJsonFromFile(AssetWorkloads.ASSETS);
+            g = createTarget();
+            for (int i = 0; i < sprites.length; i++) {
+                Sprite gem = ImageManager.getImage("bmp_skin_gemsgrid", GEMS[(i * 5 + i / 8) % GEMS.length]);
+                sprites[i] = new Sprite(gem.image, 217 + i / 8 * 74, 133 + i % 8 * 74, gem.size.x, gem.size.y);
+            }
+        }
+
+        protected void fade() {
+            frame++;
+            for (int i = 0; i < sprites.length; i++) {
+                sprites[i].alpha = i % 8 == 3 ? 1f - (frame % 12) / 12f : 1f;
+            }
+        }
+
+        public void tearDown() {
+            g.dispose();
+        }
+    }
+
+    // Every gem drawn on its own, setting and restoring the composite each time.
+    public static class BoardImmediate extends Board {
+        public long run() {
+            fade();
+            for (Sprite sprite : sprites) {
+                sprite.render(g);
+            }
+            return frame;
+        }
+    }
+
+    // The same board through a SpriteBatch.
+    public static class BoardBatched extends Board {
+        private final SpriteBatch batch = new SpriteBatch();
+
+        public long run() {
+            fade();
+            batch.begin(g);
+            for (Sprite sprite : sprites) {
+                sprite.render(batch, sprite.pos, sprite.size);
+            }
+            batch.end();
+            return batch.getStateChanges();
+        }
+    }
+
+    // A whole frame of the scripted battle, a step of the battle per frame.
+    public static class BattleFrame implements Workload {
+        private ScriptedBattle battle;
+        private OffscreenTarget target;
+
+        public void setup() throws Exception {
+            battle = new ScriptedBattle();
+            target = new OffscreenTarget(RenderTarget.WIDTH, RenderTarget.HEIGHT);
+        }
+
+        public long run() {
+            if (battle.getStep() == ScriptedBattle.STEPS) {
+                battle.restart();
+            }
+            battle.advance();
+            battle.render(target);
+            return target.getPixels()[0];
+        }
+
+        public void tearDown() {
+            target.dispose();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Asset loading and sprite lookups.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetBenchmark {
+    private Workload parseJson;
+    private Workload groupLookup;
+    private Workload nameLookup;
+    private Workload spritesInRange;
+
+    @Setup
+    public void setup() throws Exception {
+        parseJson = Workload.load("AssetWorkloads$Parse");
+        groupLookup = Workload.load("AssetWorkloads$GroupLookup");
+        nameLookup = Workload.load("AssetWorkloads$NameLookup");
+        spritesInRange = Workload.load("AssetWorkloads$Range");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        parseJson.tearDown();
+        groupLookup.tearDown();
+        nameLookup.tearDown();
+        spritesInRange.tearDown();
+    }
+
+    @Benchmark
+    public long parseJson() throws Exception {
+        return parseJson.run();
+    }
+
+    @Benchmark
+    public long groupLookup() throws Exception {
+        return groupLookup.run();
+    }
+
+    @Benchmark
+    public long nameLookup() throws Exception {
+        return nameLookup.run();
+    }
+
+    @Benchmark
+    public long spritesInRange() throws Exception {
+        return spritesInRange.run();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Match search, move index, cascades and score rules.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private Workload findMatches;
+    private Workload availableMoves;
+    private Workload cascade;
+    private Workload addGem;
+
+    @Setup
+    public void setup() throws Exception {
+        findMatches = Workload.load("BoardWorkloads$FindMatches");
+        availableMoves = Workload.load("BoardWorkloads$AvailableMoves");
+        cascade = Workload.load("BoardWorkloads$Cascade");
+        addGem = Workload.load("BoardWorkloads$AddGem");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        findMatches.tearDown();
+        availableMoves.tearDown();
+        cascade.tearDown();
+        addGem.tearDown();
+    }
+
+    @Benchmark
+    public long findMatches() throws Exception {
+        return findMatches.run();
+    }
+
+    @Benchmark
+    public long availableMoves() throws Exception {
+        return availableMoves.run();
+    }
+
+    @Benchmark
+    public long cascade() throws Exception {
+        return cascade.run();
+    }
+
+    @Benchmark
+    public long addGem() throws Exception {
+        return addGem.run();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Text and sprite rendering into an offscreen image.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+    private Workload labelText;
+    private Workload labelMessage;
+    private Workload spriteBlit;
+    private Workload spriteRotated;
+    private Workload boardImmediate;
+    private Workload boardBatched;
+    private Workload battleFrame;
+
+    @Setup
+    public void setup() throws Exception {
+        labelText = Workload.load("RenderWorkloads$LabelText");
+        labelMessage = Workload.load("RenderWorkloads$LabelMessage");
+        spriteBlit = Workload.load("RenderWorkloads$SpriteBlit");
+        spriteRotated = Workload.load("RenderWorkloads$SpriteRotated");
+        boardImmediate = Workload.load("RenderWorkloads$BoardImmediate");
+        boardBatched = Workload.load("RenderWorkloads$BoardBatched");
+        battleFrame = Workload.load("RenderWorkloads$BattleFrame");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        labelText.tearDown();
+        labelMessage.tearDown();
+        spriteBlit.tearDown();
+        spriteRotated.tearDown();
+        boardImmediate.tearDown();
+        boardBatched.tearDown();
+        battleFrame.tearDown();
+    }
+
+    @Benchmark
+    public long labelText() throws Exception {
+        return labelText.run();
+    }
+
+    @Benchmark
+    public long labelMessage() throws Exception {
+        return labelMessage.run();
+    }
+
+    @Benchmark
+    public long spriteBlit() throws Exception {
+        return spriteBlit.run();
+    }
+
+    @Benchmark
+    public long spriteRotated() throws Exception {
+        return spriteRotated.run();
+    }
+
+    @Benchmark
+    public long boardImmediate() throws Exception {
+        return boardImmediate.run();
+    }
+
+    @Benchmark
+    public long boardBatched() throws Exception {
+        return boardBatched.run();
+    }
+
+    @Benchmark
+    public long battleFrame() throws Exception {
+        return battleFrame.run();
+    }
+}
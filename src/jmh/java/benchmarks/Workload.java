@@ -22,14 +22,21 @@
  * SOFTWARE.
  */
 
-import org.joml.Vector2i;
+package benchmarks;
 
-public class GemMatch {
-    Vector2i position;
-    int count;
+// JMH does not accept benchmarks in the default package, where the game classes live, and a
+// named package can't refer to them. Each benchmark drives a workload written in the default
+// package instead, loaded by name once per trial so the calls stay monomorphic.
+public interface Workload {
+    void setup() throws Exception;
 
-    GemMatch(Vector2i position, int count) {
-        this.position = position;
-        this.count = count;
+    long run() throws Exception;
+
+    default void tearDown() throws Exception {}
+
+    static Workload load(String className) throws Exception {
+        Workload workload = (Workload) Class.forName(className).getDeclaredConstructor().newInstance();
+        workload.setup();
+        return workload;
     }
 }
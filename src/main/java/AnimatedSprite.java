@@ -55,6 +55,18 @@ public class AnimatedSprite {
         }
     }
 
+    public int getFrame() {
+        return currentFrame;
+    }
+
+    public void render(SpriteBatch batch, Vector2i position) {
+        frames.get(currentFrame).render(batch, position);
+    }
+
+    public void render(SpriteBatch batch, Vector2i position, Vector2i size) {
+        frames.get(currentFrame).render(batch, position, size);
+    }
+
     public void render(Graphics g, Vector2i position) {
         frames.get(currentFrame).render(g, position);
     }
@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// A bitmap declared in the assets and the regions cut from it. Only the table lives here,
+// the pixels are decoded from the image file, or copied from a pack, when the group is loaded.
+public class AssetGroup {
+    // Groups packed into an atlas share their bitmap. While groups of a bitmap are being loaded
+    // together it is decoded once for all of them, and dropped when the last one is done with it.
+    private static final Map<String, Shared> shared = new HashMap<>();
+
+    private static class Shared {
+        int users;
+        BufferedImage image;
+    }
+
+    public final String name;
+    public final String path;
+    public final boolean precache;
+    public final List<Region> regions = new ArrayList<>();
+
+    // Where the pixels of the group are in a pack, null when they come from the image file.
+    AssetPack pack;
+    long pixelOffset;
+    int width;
+    int height;
+    boolean alpha;
+
+    // Built once when the group is registered. The sprites keep their identity for the whole run
+    // and only get their pixels while the group is loaded.
+    final List<BitmapData> bitmaps = new ArrayList<>();
+    final Map<String, Sprite> sprites = new HashMap<>();
+    final Map<String, Integer> frames = new HashMap<>();
+
+    // Guarded by ImageManager: null while the pixels are not loaded or being loaded.
+    CompletableFuture<Void> load;
+    int references;
+    long bytes;
+    long compatibleBytes;
+    boolean broken;
+    // Pixels of an evicted group, taken back if the collector did not need the memory yet.
+    SoftReference<BufferedImage[]> evicted;
+
+    public static class Region {
+        public final String name;
+        public final int x;
+        public final int y;
+        public final int w;
+        public final int h;
+
+        Region(String name, int x, int y, int w, int h) {
+            this.name = name;
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+        }
+    }
+
+    AssetGroup(String name, String path, boolean precache) {
+        this.name = name;
+        this.path = path;
+        this.precache = precache;
+    }
+
+    public File getFile() {
+        return new File(path.replace('\\', File.separatorChar));
+    }
+
+    // Shares the bitmap of the group with the other groups retained on it until release is called.
+    void retain() {
+        synchronized (shared) {
+            shared.computeIfAbsent(path, key -> new Shared()).users++;
+        }
+    }
+
+    void release() {
+        synchronized (shared) {
+            Shared entry = shared.get(path);
+            if (entry != null && --entry.users == 0) {
+                shared.remove(path);
+            }
+        }
+    }
+
+    // Decodes the bitmap, once for every group retained on it. Without retain it is decoded every time.
+    public BufferedImage decode() throws IOException {
+        Shared entry;
+        synchronized (shared) {
+            entry = shared.get(path);
+        }
+        if (entry == null) {
+            return read();
+        }
+        synchronized (entry) {
+            if (entry.image == null) {
+                entry.image = read();
+            }
+            return entry.image;
+        }
+    }
+
+    private BufferedImage read() throws IOException {
+        BufferedImage image = pack != null ? pack.decode(this) : ImageIO.read(getFile());
+        if (image == null) {
+            throw new IOException("Unsupported image: " + path);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Assets compiled by AssetPacker: the group and region table followed by the pixels of every bitmap
+// already decoded, one little endian ARGB int per pixel, row by row, each bitmap aligned to 8 bytes.
+// The file is memory mapped and a bitmap is only copied out when its group is loaded. Groups that
+// share a bitmap, like the groups of an atlas page, share its pixels too.
+//
+// Header:  int magic, int version, int table length, int group count (big endian)
+// Group:   UTF name, UTF path, boolean precache, int width, int height, boolean alpha,
+//          long pixel offset, int region count, then per region UTF name, int x, y, w, h
+public class AssetPack {
+    static final int MAGIC = 0x50514150;
+    static final int VERSION = 1;
+    private static final int HEADER = 16;
+
+    private final MappedByteBuffer buffer;
+    private final List<AssetGroup> groups = new ArrayList<>();
+
+    private AssetPack(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public static AssetPack open(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an asset pack: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported asset pack version " + buffer.getInt(4) + ": " + file);
+        }
+
+        byte[] table = new byte[buffer.getInt(8)];
+        buffer.get(HEADER, table);
+        int count = buffer.getInt(12);
+
+        AssetPack pack = new AssetPack(buffer);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(table))) {
+            for (int i = 0; i < count; i++) {
+                AssetGroup group = new AssetGroup(in.readUTF(), in.readUTF(), in.readBoolean());
+                group.pack = pack;
+                group.width = in.readInt();
+                group.height = in.readInt();
+                group.alpha = in.readBoolean();
+                group.pixelOffset = in.readLong();
+
+                int regions = in.readInt();
+                for (int j = 0; j < regions; j++) {
+                    group.regions.add(new AssetGroup.Region(in.readUTF(), in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+                }
+
+                if (group.pixelOffset + 4L * group.width * group.height > buffer.limit()) {
+                    throw new IOException("Truncated asset pack: " + file);
+                }
+                pack.groups.add(group);
+            }
+        }
+        return pack;
+    }
+
+    public List<AssetGroup> getGroups() {
+        return groups;
+    }
+
+    // Copies the pixels row by row through the raster, so the image stays eligible for acceleration.
+    BufferedImage decode(AssetGroup group) {
+        int type = group.alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage image = new BufferedImage(group.width, group.height, type);
+        WritableRaster raster = image.getRaster();
+
+        IntBuffer pixels = buffer.slice((int) group.pixelOffset, 4 * group.width * group.height)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        int[] row = new int[group.width];
+        for (int y = 0; y < group.height; y++) {
+            pixels.get(row);
+            raster.setDataElements(0, y, group.width, 1, row);
+        }
+        return image;
+    }
+
+    private static void writeTable(DataOutputStream out, List<AssetGroup> groups, List<BufferedImage> images,
+                                   long[] offsets) throws IOException {
+        for (int i = 0; i < groups.size(); i++) {
+            AssetGroup group = groups.get(i);
+            BufferedImage image = images.get(i);
+            out.writeUTF(group.name);
+            out.writeUTF(group.path);
+            out.writeBoolean(group.precache);
+            out.writeInt(image.getWidth());
+            out.writeInt(image.getHeight());
+            out.writeBoolean(image.getColorModel().hasAlpha());
+            out.writeLong(offsets[i]);
+            out.writeInt(group.regions.size());
+            for (AssetGroup.Region region : group.regions) {
+                out.writeUTF(region.name);
+                out.writeInt(region.x);
+                out.writeInt(region.y);
+                out.writeInt(region.w);
+                out.writeInt(region.h);
+            }
+        }
+    }
+
+    public static void write(File file, List<AssetGroup> groups, List<BufferedImage> images) throws IOException {
+        long[] offsets = new long[groups.size()];
+
+        // The table has the same size whatever the offsets are, so measure it first.
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        writeTable(new DataOutputStream(table), groups, images, offsets);
+        long offset = HEADER + table.size();
+        Map<String, Long> shared = new HashMap<>();
+        for (int i = 0; i < offsets.length; i++) {
+            Long previous = shared.get(groups.get(i).path);
+            if (previous != null) {
+                offsets[i] = previous;
+                continue;
+            }
+            offset = (offset + 7) & ~7L;
+            offsets[i] = offset;
+            shared.put(groups.get(i).path, offset);
+            offset += 4L * images.get(i).getWidth() * images.get(i).getHeight();
+        }
+        table.reset();
+        writeTable(new DataOutputStream(table), groups, images, offsets);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(table.size());
+            out.writeInt(groups.size());
+            table.writeTo(out);
+
+            long written = HEADER + table.size();
+            for (int i = 0; i < images.size(); i++) {
+                if (offsets[i] < written) {
+                    continue;
+                }
+                for (; written < offsets[i]; written++) {
+                    out.writeByte(0);
+                }
+
+                BufferedImage image = images.get(i);
+                int[] row = new int[image.getWidth()];
+                for (int y = 0; y < image.getHeight(); y++) {
+                    image.getRGB(0, y, row.length, 1, row, 0, row.length);
+                    for (int pixel : row) {
+                        out.writeInt(Integer.reverseBytes(pixel));
+                    }
+                }
+                written += 4L * row.length * image.getHeight();
+            }
+        }
+    }
+}
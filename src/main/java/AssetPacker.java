@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.json.JSONObject;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compiles the assets file and the images it references into a pack the game maps at startup.
+// An up to date atlas of the assets file is packed instead of it.
+// Usage: AssetPacker [assets json] [pack]
+public class AssetPacker {
+    public static void main(String[] args) throws IOException {
+        File json = ImageManager.resolveAssets(new File(args.length > 0 ? args[0] : "resources/Assets.json"));
+        File pack = args.length > 1 ? new File(args[1]) : ImageManager.getPackFile(json);
+
+        JSONObject assets = new JSONObject(Files.readString(json.toPath())).getJSONObject("Assets");
+        List<AssetGroup> groups = ImageManager.readGroups(assets);
+        List<BufferedImage> images = new ArrayList<>();
+        for (AssetGroup group : groups) {
+            group.retain();
+        }
+        for (AssetGroup group : groups) {
+            images.add(group.decode());
+        }
+
+        AssetPack.write(pack, groups, images);
+        for (AssetGroup group : groups) {
+            group.release();
+        }
+        System.out.printf("packed %d bitmaps into %s (%d KB)%n", groups.size(), pack, pack.length() / 1024);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.json.JSONObject;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+// Packs the regions of the assets file into as few power of two pages as it can and writes
+// the pages with a new assets file next to them. Each region keeps its name and order, and
+// a _group attribute keeps the group it was in; a group never spans two pages.
+// Usage: AtlasPacker [assets json] [atlas json]
+public class AtlasPacker {
+    private static final int MAX_SIZE = 2048;
+    // Transparent border around every region, filled with its edge pixels so scaled draws do not
+    // pick up the neighbouring region.
+    private static final int PADDING = 2;
+
+    // Free space of a page as shelves: rows of regions as tall as the first one placed on them.
+    // The padding of regions on the border of the page is left out, sampling clamps there anyway.
+    private static class Page {
+        final int maxWidth;
+        final int maxHeight;
+        final List<int[]> shelves = new ArrayList<>();
+        final List<Placement> placements = new ArrayList<>();
+        int bottom;
+
+        Page(int maxWidth, int maxHeight) {
+            this.maxWidth = maxWidth;
+            this.maxHeight = maxHeight;
+        }
+
+        boolean place(Placement placement) {
+            int w = placement.image.getWidth() + 2 * PADDING;
+            int h = placement.image.getHeight() + 2 * PADDING;
+            for (int[] shelf : shelves) {
+                // shelf = {y, height, used width}
+                if (h <= shelf[1] && shelf[2] + w <= maxWidth + 2 * PADDING) {
+                    placement.x = shelf[2];
+                    placement.y = shelf[0];
+                    shelf[2] += w;
+                    placements.add(placement);
+                    return true;
+                }
+            }
+            if (w > maxWidth + 2 * PADDING || bottom + h > maxHeight + 2 * PADDING) {
+                return false;
+            }
+            shelves.add(new int[]{bottom, h, w});
+            placement.x = 0;
+            placement.y = bottom;
+            bottom += h;
+            placements.add(placement);
+            return true;
+        }
+
+        // Places every region of a group, or none of them.
+        boolean placeAll(List<Placement> group) {
+            List<int[]> savedShelves = new ArrayList<>();
+            for (int[] shelf : shelves) {
+                savedShelves.add(shelf.clone());
+            }
+            int savedBottom = bottom;
+            int savedCount = placements.size();
+
+            for (Placement placement : group) {
+                if (!place(placement)) {
+                    shelves.clear();
+                    shelves.addAll(savedShelves);
+                    bottom = savedBottom;
+                    placements.subList(savedCount, placements.size()).clear();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int getWidth() {
+            int width = 1;
+            for (Placement placement : placements) {
+                width = Math.max(width, placement.x + placement.image.getWidth() + PADDING);
+            }
+            return nextPowerOfTwo(Math.min(width, maxWidth));
+        }
+
+        int getHeight() {
+            return nextPowerOfTwo(Math.clamp(bottom - PADDING, 1, maxHeight));
+        }
+    }
+
+    private static class Placement {
+        final AssetGroup group;
+        final AssetGroup.Region region;
+        final BufferedImage image;
+        int page;
+        int x;
+        int y;
+
+        Placement(AssetGroup group, AssetGroup.Region region, BufferedImage image) {
+            this.group = group;
+            this.region = region;
+            this.image = image;
+        }
+    }
+
+    // highestOneBit(0) is 0, so a 1 pixel side needs its own case.
+    private static int nextPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        File json = new File(args.length > 0 ? args[0] : "resources/Assets.json");
+        File atlas = args.length > 1 ? new File(args[1]) : ImageManager.getAtlasFile(json);
+
+        JSONObject assets = new JSONObject(Files.readString(json.toPath())).getJSONObject("Assets");
+        List<AssetGroup> groups = ImageManager.readGroups(assets);
+
+        Map<AssetGroup, List<Placement>> byGroup = new LinkedHashMap<>();
+        for (AssetGroup group : groups) {
+            group.retain();
+        }
+        for (AssetGroup group : groups) {
+            BufferedImage bitmap = group.decode();
+            List<Placement> placements = new ArrayList<>();
+            for (AssetGroup.Region region : group.regions) {
+                placements.add(new Placement(group, region, bitmap.getSubimage(region.x, region.y, region.w, region.h)));
+            }
+            // Tall regions first, so the shelves waste less space.
+            placements.sort(Comparator.comparingInt((Placement placement) -> placement.region.h).reversed());
+            byGroup.put(group, placements);
+        }
+        for (AssetGroup group : groups) {
+            group.release();
+        }
+
+        // Largest groups first.
+        List<AssetGroup> order = new ArrayList<>(byGroup.keySet());
+        order.sort(Comparator.comparingLong((AssetGroup group) -> {
+            long area = 0;
+            for (AssetGroup.Region region : group.regions) {
+                area += (long) (region.w + 2 * PADDING) * (region.h + 2 * PADDING);
+            }
+            return area;
+        }).reversed());
+
+        // A 2048 square page wastes most of its bottom half when the regions only just overflow 1024
+        // rows, so every page size is tried and the one with the least area, then the fewest pages, wins.
+        int bestWidth = 0;
+        int bestHeight = 0;
+        long bestArea = Long.MAX_VALUE;
+        int bestCount = Integer.MAX_VALUE;
+        for (int width = MAX_SIZE; width >= 256; width /= 2) {
+            for (int height = MAX_SIZE; height >= 256; height /= 2) {
+                List<Page> pages = pack(order, byGroup, width, height);
+                if (pages == null) {
+                    continue;
+                }
+                long area = 0;
+                for (Page page : pages) {
+                    area += (long) page.getWidth() * page.getHeight();
+                }
+                if (area < bestArea || (area == bestArea && pages.size() < bestCount)) {
+                    bestWidth = width;
+                    bestHeight = height;
+                    bestArea = area;
+                    bestCount = pages.size();
+                }
+            }
+        }
+        if (bestArea == Long.MAX_VALUE) {
+            throw new IOException("A group does not fit in a " + MAX_SIZE + " page");
+        }
+        List<Page> pages = pack(order, byGroup, bestWidth, bestHeight);
+
+        File directory = atlas.getAbsoluteFile().getParentFile();
+        directory.mkdirs();
+        String base = atlas.getName().replaceFirst("\\.json$", "");
+
+        StringBuilder out = new StringBuilder("{\n\t\"Assets\": {\n\t\t\"Bitmap\": [\n");
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            BufferedImage image = new BufferedImage(page.getWidth(), page.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            boolean precache = false;
+            for (Placement placement : page.placements) {
+                placement.page = i;
+                draw(image, placement);
+                precache |= placement.group.precache;
+            }
+
+            File file = new File(directory, base + "_" + i + ".png");
+            ImageIO.write(image, "png", file);
+
+            // Paths in the assets file are relative to the working directory, like the atlas file itself.
+            String path = new File(atlas.getParentFile(), file.getName()).getPath().replace(File.separatorChar, '\\');
+            out.append("\t\t\t{\n")
+                    .append("\t\t\t\t\"_tag\": ").append(JSONObject.quote(pageTag(base, i))).append(",\n")
+                    .append("\t\t\t\t\"_precache\": \"").append(precache ? 1 : 0).append("\",\n")
+                    .append("\t\t\t\t\"__text\": ").append(JSONObject.quote(path)).append("\n")
+                    .append(i < pages.size() - 1 ? "\t\t\t},\n" : "\t\t\t}\n");
+            System.out.printf("page %d: %dx%d, %d regions%n", i, image.getWidth(), image.getHeight(), page.placements.size());
+        }
+        out.append("\t\t],\n\n\t\t\"BitmapImage\": [\n");
+
+        // Regions are written back in the order of the assets file, so frame ranges do not change.
+        List<Placement> all = new ArrayList<>();
+        for (AssetGroup group : groups) {
+            List<Placement> placements = new ArrayList<>(byGroup.get(group));
+            placements.sort(Comparator.comparingInt(placement -> group.regions.indexOf(placement.region)));
+            all.addAll(placements);
+        }
+        for (int i = 0; i < all.size(); i++) {
+            Placement placement = all.get(i);
+            out.append("\t\t\t{\n")
+                    .append("\t\t\t\t\"_tag\": ").append(JSONObject.quote(placement.region.name)).append(",\n")
+                    .append("\t\t\t\t\"_bitmap\": ").append(JSONObject.quote(pageTag(base, placement.page))).append(",\n")
+                    .append("\t\t\t\t\"_group\": ").append(JSONObject.quote(placement.group.name)).append(",\n")
+                    .append("\t\t\t\t\"_precache\": \"").append(placement.group.precache ? 1 : 0).append("\",\n")
+                    .append("\t\t\t\t\"_x\": \"").append(placement.x).append("\",\n")
+                    .append("\t\t\t\t\"_y\": \"").append(placement.y).append("\",\n")
+                    .append("\t\t\t\t\"_width\": \"").append(placement.region.w).append("\",\n")
+                    .append("\t\t\t\t\"_height\": \"").append(placement.region.h).append("\"\n")
+                    .append(i < all.size() - 1 ? "\t\t\t},\n" : "\t\t\t}\n");
+        }
+        out.append("\t\t]\n\t}\n}\n");
+        Files.writeString(atlas.toPath(), out);
+
+        System.out.printf("packed %d regions of %d bitmaps into %d pages: %s%n", all.size(), groups.size(), pages.size(), atlas);
+    }
+
+    // Puts each group on the first page it fits in whole, or null when a group fits in no page.
+    private static List<Page> pack(List<AssetGroup> order, Map<AssetGroup, List<Placement>> byGroup, int width, int height) {
+        List<Page> pages = new ArrayList<>();
+        for (AssetGroup group : order) {
+            List<Placement> placements = byGroup.get(group);
+            if (placements.isEmpty()) {
+                continue;
+            }
+            boolean placed = false;
+            for (Page page : pages) {
+                if (page.placeAll(placements)) {
+                    placed = true;
+                    break;
+                }
+            }
+            if (!placed) {
+                Page page = new Page(width, height);
+                if (!page.placeAll(placements)) {
+                    return null;
+                }
+                pages.add(page);
+            }
+        }
+        return pages;
+    }
+
+    private static String pageTag(String base, int page) {
+        return "bmp_" + base.toLowerCase() + "_page_" + page;
+    }
+
+    // Copies the region and repeats its outer pixels over the padding.
+    private static void draw(BufferedImage page, Placement placement) {
+        BufferedImage image = placement.image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int top = Math.max(-PADDING, -placement.y);
+        int left = Math.max(-PADDING, -placement.x);
+        int bottom = Math.min(h + PADDING, page.getHeight() - placement.y);
+        int right = Math.min(w + PADDING, page.getWidth() - placement.x);
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x++) {
+                int pixel = image.getRGB(Math.clamp(x, 0, w - 1), Math.clamp(y, 0, h - 1));
+                page.setRGB(placement.x + x, placement.y + y, pixel);
+            }
+        }
+    }
+}
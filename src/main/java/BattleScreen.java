@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+// The game screen of a battle, drawn the same way by the game and by ScriptedBattle: the backdrop
+// with the parts of the board that never change, kept in a layer drawn once, then the gems on top.
+public class BattleScreen {
+    private final Grid grid;
+    private final SpriteBatch batch = new SpriteBatch();
+    private BufferedImage staticLayer;
+
+    BattleScreen(Grid grid) {
+        this.grid = grid;
+    }
+
+    public void render(Graphics g) {
+        g.drawImage(getStaticLayer(), 0, 0, null);
+        batch.begin(g);
+        grid.render(batch);
+        batch.end();
+    }
+
+    // Adds to the region what changed on screen since the last call.
+    public void damage(DirtyRegion region) {
+        grid.damage(region);
+    }
+
+    // Lets go of the layer while the screen is not shown, it is drawn again on the next render.
+    public void dispose() {
+        staticLayer = null;
+    }
+
+    private BufferedImage getStaticLayer() {
+        if (staticLayer == null) {
+            Sprite backdrop = ImageManager.getImage("bmp_skin_backdrop_battle", "img_backdrop_battle");
+            staticLayer = new BufferedImage(RenderTarget.WIDTH, RenderTarget.HEIGHT, BufferedImage.TYPE_INT_RGB);
+            Graphics g = staticLayer.createGraphics();
+            backdrop.render(g, 0, 0, RenderTarget.WIDTH, RenderTarget.HEIGHT);
+            grid.renderStatic(g);
+            g.dispose();
+        }
+        return staticLayer;
+    }
+}
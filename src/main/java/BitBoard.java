@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Arrays;
+
+public class BitBoard {
+    public static final int SIZE = 8;
+    // A line of 8 cells holds at most two runs of three, so 8 rows plus 8 columns give 32 runs.
+    public static final int MAX_RUNS = 32;
+
+    // Cells on columns 0 to 5, the only ones where a run of three can start.
+    private static final long RUN_START = 0x3F3F3F3F3F3F3F3FL;
+    private static final GemType[] TYPES = GemType.values();
+
+    // One mask per gem type, bit (row * SIZE + column) is set when the cell holds that type.
+    private final long[] gems = new long[TYPES.length];
+    // Bumped every time the mask of a type changes, so indexes built on top of the board
+    // only need to rebuild the types that were touched.
+    private final int[] versions = new int[TYPES.length];
+    private final long[] rowCells = new long[TYPES.length];
+    private final long[] columnCells = new long[TYPES.length];
+
+    private long matchMask;
+    private int runCount;
+    private final int[] runCell = new int[MAX_RUNS];
+    private final int[] runLength = new int[MAX_RUNS];
+    private final GemType[] runType = new GemType[MAX_RUNS];
+
+    public static int index(int row, int column) {
+        return row * SIZE + column;
+    }
+
+    public static int row(int cell) {
+        return cell / SIZE;
+    }
+
+    public static int column(int cell) {
+        return cell % SIZE;
+    }
+
+    // Mirrors the board on its diagonal, so (row, column) becomes (column, row).
+    public static long transpose(long x) {
+        long t;
+        t = 0x0F0F0F0F00000000L & (x ^ (x << 28));
+        x ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (x ^ (x << 14));
+        x ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (x ^ (x << 7));
+        x ^= t ^ (t >>> 7);
+        return x;
+    }
+
+    // Cells that belong to a run of three or more along the row direction.
+    static long rowRuns(long mask) {
+        long start = mask & (mask >>> 1) & (mask >>> 2) & RUN_START;
+        return start | (start << 1) | (start << 2);
+    }
+
+    public void clear() {
+        for (int i = 0; i < gems.length; i++) {
+            versions[i]++;
+        }
+        Arrays.fill(gems, 0L);
+        matchMask = 0L;
+        runCount = 0;
+    }
+
+    public void set(int row, int column, GemType type) {
+        long bit = 1L << index(row, column);
+        for (int i = 0; i < gems.length; i++) {
+            if ((gems[i] & bit) != 0) {
+                if (type != null && i == type.ordinal()) {
+                    return;
+                }
+                gems[i] &= ~bit;
+                versions[i]++;
+            }
+        }
+        if (type != null) {
+            gems[type.ordinal()] |= bit;
+            versions[type.ordinal()]++;
+        }
+    }
+
+    public GemType get(int row, int column) {
+        return getAt(index(row, column));
+    }
+
+    public GemType getAt(int cell) {
+        for (int i = 0; i < gems.length; i++) {
+            if ((gems[i] >>> cell & 1L) != 0) {
+                return TYPES[i];
+            }
+        }
+        return null;
+    }
+
+    public long getMask(GemType type) {
+        return gems[type.ordinal()];
+    }
+
+    long getMask(int type) {
+        return gems[type];
+    }
+
+    int getVersion(int type) {
+        return versions[type];
+    }
+
+    public void swap(int rowA, int columnA, int rowB, int columnB) {
+        GemType type = get(rowA, columnA);
+        set(rowA, columnA, get(rowB, columnB));
+        set(rowB, columnB, type);
+    }
+
+    // Finds every run of three or more identical gems, by rows first and then by columns,
+    // in the same order the runs were scored before.
+    public boolean findMatches() {
+        long rows = 0L;
+        long columns = 0L;
+        for (int i = 0; i < gems.length; i++) {
+            rowCells[i] = rowRuns(gems[i]);
+            columnCells[i] = rowRuns(transpose(gems[i]));
+            rows |= rowCells[i];
+            columns |= columnCells[i];
+        }
+
+        runCount = 0;
+        collectRuns(rowCells, rows, false);
+        collectRuns(columnCells, columns, true);
+
+        matchMask = rows | transpose(columns);
+        return matchMask != 0L;
+    }
+
+    private void collectRuns(long[] cells, long remaining, boolean transposed) {
+        while (remaining != 0L) {
+            int bit = Long.numberOfTrailingZeros(remaining);
+            int type = 0;
+            while ((cells[type] >>> bit & 1L) == 0) {
+                type++;
+            }
+
+            // Runs never wrap to the next line, even if the next line starts with the same gem.
+            int length = Math.min(Long.numberOfTrailingZeros(~(cells[type] >>> bit)), SIZE - column(bit));
+            int end = bit + length - 1;
+
+            runCell[runCount] = transposed ? index(column(end), row(end)) : end;
+            runLength[runCount] = length;
+            runType[runCount] = TYPES[type];
+            runCount++;
+
+            remaining &= ~(((1L << length) - 1) << bit);
+        }
+    }
+
+    public long getMatchMask() {
+        return matchMask;
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    // The last cell of the run, which is where the run was reported from.
+    public int getRunCell(int run) {
+        return runCell[run];
+    }
+
+    public int getRunLength(int run) {
+        return runLength[run];
+    }
+
+    public GemType getRunType(int run) {
+        return runType[run];
+    }
+}
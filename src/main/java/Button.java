@@ -72,20 +72,20 @@ public class Button extends Component {
         this.animatedSprite.update(dt);
     }
 
-    public void render(Graphics g) {
+    public void render(SpriteBatch batch) {
         if(this.disable) return;
         this.label.position = new Vector2i(this.position);
 
         if (this.isPressed) {
-            this.pressedSprite.render(g, this.position, this.size);
+            this.pressedSprite.render(batch, this.position, this.size);
             this.label.position.y++;
         } else if (this.isInside) {
-            this.animatedSprite.render(g, this.position, this.size);
+            this.animatedSprite.render(batch, this.position, this.size);
         } else {
-            this.actionSprte.render(g, this.position, this.size);
+            this.actionSprte.render(batch, this.position, this.size);
         }
 
-        FontMetrics metrics = g.getFontMetrics(this.label.font);
+        FontMetrics metrics = batch.getGraphics().getFontMetrics(this.label.font);
         int width = metrics.stringWidth(text);
         int height = metrics.getHeight();
         int ascent = metrics.getAscent();
@@ -96,6 +96,6 @@ public class Button extends Component {
 
         this.label.text = this.text;
         this.label.outlineWidth = 2;
-        this.label.render(g);
+        this.label.render(batch);
     }
 }
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.Canvas;
+import java.awt.Graphics2D;
+import java.awt.image.BufferStrategy;
+
+// Draws into the back buffer of a canvas and flips it on screen.
+public class CanvasTarget implements RenderTarget {
+    private final Canvas canvas;
+    private final BufferStrategy bs;
+    private Graphics2D g;
+
+    CanvasTarget(Canvas canvas, int buffers) {
+        this.canvas = canvas;
+        canvas.createBufferStrategy(buffers);
+        this.bs = canvas.getBufferStrategy();
+    }
+
+    @Override
+    public int getWidth() {
+        return canvas.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return canvas.getHeight();
+    }
+
+    @Override
+    public Graphics2D begin() {
+        g = (Graphics2D) bs.getDrawGraphics();
+        return g;
+    }
+
+    // The back buffer can be restored while drawing, or lost right after it is shown.
+    @Override
+    public boolean end() {
+        g.dispose();
+        g = null;
+        if (bs.contentsRestored()) {
+            return false;
+        }
+        bs.show();
+        return !bs.contentsLost();
+    }
+
+    @Override
+    public void dispose() {
+        bs.dispose();
+    }
+}
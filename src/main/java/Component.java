@@ -24,7 +24,6 @@
 
 import org.joml.Vector2i;
 import java.awt.*;
-import java.awt.event.MouseEvent;
 
 public class Component {
     public Vector2i position;
@@ -57,16 +56,14 @@ public class Component {
     public void mouseEvent(MouseHandler handler) {
         if(this.disable) return;
 
-        MouseEvent e = handler.event;
-
         switch (handler.type) {
             case MOUSE_PRESSED:
-                if (contains(e.getPoint())) {
+                if (contains(handler.getPoint())) {
                     isPressed = true;
                 }
                 break;
             case MOUSE_RELEASED:
-                if (isPressed && contains(e.getPoint())) {
+                if (isPressed && contains(handler.getPoint())) {
                     onClick();
                 } else {
                     isInside = false;
@@ -74,7 +71,7 @@ public class Component {
                 isPressed = false;
                 break;
             case MOUSE_MOVED:
-                this.isInside = contains(e.getPoint());
+                this.isInside = contains(handler.getPoint());
                 break;
             default:
         }
@@ -22,152 +22,336 @@
  * SOFTWARE.
  */
 
-import java.nio.ByteBuffer;
+import java.io.*;
 import java.sql.*;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.util.*;
 
-public class Database {
-    private Connection connect() {
-        String url = "jdbc:sqlite:puzzle.db";
-        Connection connection = null;
-        try {
-            Class.forName("org.sqlite.JDBC");
+// Keeps one connection to the save file open for the whole session, with every statement
+// prepared once. The methods are synchronized, the connection is shared by every caller.
+public class Database implements SaveStore {
+    // "GEM_GREEN" -> "gemGreen"...
+    private static final String[] COLUMNS = new String[GemType.values().length];
+
+    private static final String PLAYER_INSERT;
+
+    static {
+        for (GemType gemType : GemType.values()) {
+            String type = gemType.name().toLowerCase();
+            int i = type.indexOf("_");
+            COLUMNS[gemType.ordinal()] = type.substring(0, i) +
+                    type.substring(i + 1).substring(0, 1).toUpperCase() +
+                    type.substring(i + 1).substring(1);
+        }
+        PLAYER_INSERT = "INSERT OR REPLACE INTO player(save_id, player, health, max_health, next_turn, "
+                + String.join(", ", COLUMNS) + ") VALUES(?,?,?,?,?" + ",?".repeat(COLUMNS.length) + ")";
+    }
+
+    private final String url;
+    // The save to continue from is kept next to the database.
+    private final File selectedFile;
+    private Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    Database() {
+        this("puzzle.db");
+    }
+
+    Database(String file) {
+        this.url = "jdbc:sqlite:" + file;
+        this.selectedFile = new File(new File(file).getAbsoluteFile().getParentFile(), "puzzle.bin");
+    }
+
+    // Opens the connection the first time it is needed. With the write-ahead log and synchronous=NORMAL
+    // a save appends to the log without an fsync, the log is synced on checkpoints only.
+    private Connection connect() throws SQLException {
+        if (connection == null) {
+            try {
+                Class.forName("org.sqlite.JDBC");
+            } catch (ClassNotFoundException e) {
+                throw new SQLException(e);
+            }
             connection = DriverManager.getConnection(url);
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA journal_mode=WAL");
+                stmt.execute("PRAGMA synchronous=NORMAL");
+                stmt.execute("PRAGMA foreign_keys=ON");
+            }
         }
         return connection;
     }
 
-    public void create() {
-        String sql = "CREATE TABLE IF NOT EXISTS game_save ("
-                + " id integer PRIMARY KEY,"
-                + " save_name TEXT NOT NULL,"
-                + " gemGreen INTEGER NOT NULL,"
-                + " gemRed INTEGER NOT NULL,"
-                + " gemYellow INTEGER NOT NULL,"
-                + " gemBlue INTEGER NOT NULL,"
-                + " gemSkull INTEGER NOT NULL,"
-                + " gemExp INTEGER NOT NULL,"
-                + " gemGold INTEGER NOT NULL,"
-                + " health INTEGER NOT NULL"
-                + ");";
-
-        try (Connection conn = this.connect();
-             Statement stmt = conn.createStatement()) {
+    private PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement stmt = statements.get(sql);
+        if (stmt == null) {
+            stmt = connect().prepareStatement(sql);
+            statements.put(sql, stmt);
+        }
+        return stmt;
+    }
 
-            stmt.execute(sql);
+    // Closes the statements and the connection, which checkpoints the log into the save file.
+    // The next call opens them again.
+    @Override
+    public synchronized void close() {
+        try {
+            for (PreparedStatement stmt : statements.values()) {
+                stmt.close();
+            }
+            if (connection != null) {
+                connection.close();
+            }
         } catch (SQLException e) {
             System.out.println(e.getMessage());
+        } finally {
+            statements.clear();
+            connection = null;
         }
     }
 
-    public void insertGems(String save_name, SaveData saveData) {
-        String sql = "INSERT INTO game_save(save_name, gemGreen, gemRed, gemYellow, gemBlue, gemSkull, gemExp, gemGold, health) VALUES(?,?,?,?,?,?,?,?,?)";
+    // Version of the tables below, kept in PRAGMA user_version. Version 0 is the old game_save
+    // table, which packed both players in one row with 8 bits per count.
+    public static final int SCHEMA_VERSION = 1;
+
+    @Override
+    public synchronized void create() {
+        StringBuilder player = new StringBuilder("CREATE TABLE IF NOT EXISTS player ("
+                + " save_id INTEGER NOT NULL REFERENCES save(id) ON DELETE CASCADE,"
+                + " player INTEGER NOT NULL,"
+                + " health INTEGER NOT NULL,"
+                + " max_health INTEGER NOT NULL,"
+                + " next_turn INTEGER NOT NULL,");
+        for (String column : COLUMNS) {
+            player.append(" ").append(column).append(" INTEGER NOT NULL,");
+        }
+        player.append(" PRIMARY KEY (save_id, player)"
+                + ");");
+
+        String save = "CREATE TABLE IF NOT EXISTS save ("
+                + " id INTEGER PRIMARY KEY,"
+                + " save_name TEXT NOT NULL UNIQUE,"
+                + " current_player INTEGER NOT NULL,"
+                + " board BLOB,"
+                + " random_state INTEGER NOT NULL"
+                + ");";
+
+        try {
+            runInTransaction(() -> {
+                int version;
+                try (Statement stmt = this.connect().createStatement();
+                     ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+                    version = rs.next() ? rs.getInt(1) : 0;
+                }
+                if (version > SCHEMA_VERSION) {
+                    throw new SQLException("Saves were written by a newer version of the game (schema " + version + ")");
+                }
 
-        try (Connection conn = this.connect();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, save_name);
+                try (Statement stmt = this.connect().createStatement()) {
+                    stmt.execute(save);
+                    stmt.execute(player.toString());
+                }
+                if (version == 0) {
+                    migrateGameSave();
+                }
+                try (Statement stmt = this.connect().createStatement()) {
+                    stmt.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+                }
+            });
+        } catch (SQLException | IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
 
-            for (int i = 2; i < saveData.encodedGems.size() + 2; i++) {
-                stmt.setInt(i, saveData.encodedGems.get(GemType.values()[i - 2]));
+    // Moves the saves of the version 0 table to the new ones. The board was never saved then,
+    // so those games start on a new board.
+    private void migrateGameSave() throws SQLException {
+        try (Statement stmt = this.connect().createStatement();
+             ResultSet tables = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type='table' AND name='game_save'")) {
+            if (!tables.next()) {
+                return;
             }
+        }
 
-           /* int[] pattern = {
-                    2, 1, 3, 0, 4, 5, 6, 4,
-                    1, 5, 1, 3, 5, 0, 2, 2,
-                    3, 6, 4, 1, 3, 0, 1, 3,
-                    0, 4, 2, 6, 0, 1, 3, 1,
-                    4, 5, 1, 0, 1, 3, 5, 3,
-                    5, 6, 5, 4, 3, 0, 4, 0,
-                    6, 2, 1, 3, 1, 6, 5, 4,
-                    2, 1, 3, 0, 4, 5, 4, 6
-            };
+        // The first of two rows with the same name wins, as it did when loading.
+        Set<String> names = new HashSet<>();
+        try (Statement stmt = this.connect().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM game_save ORDER BY id")) {
+            while (rs.next()) {
+                if (!names.add(rs.getString("save_name"))) {
+                    continue;
+                }
+                SaveData data = new SaveData();
+                for (GemType gemType : GemType.values()) {
+                    int encoded = rs.getInt(COLUMNS[gemType.ordinal()]);
+                    data.gems[0][gemType.ordinal()] = encoded & 0xFF;
+                    data.gems[1][gemType.ordinal()] = (encoded >> 0x8) & 0xFF;
+                }
+                int health = rs.getInt("health");
+                data.health[0] = health & 0xFF;
+                data.maxHealth[0] = (health >> 0x8) & 0xFF;
+                data.health[1] = (health >> 0x10) & 0xFF;
+                data.maxHealth[1] = (health >> 0x18) & 0xFF;
+                write(rs.getString("save_name"), data, true);
+            }
+        }
 
-            ByteBuffer buffer = ByteBuffer.allocate(pattern.length * Integer.BYTES);
-            IntStream.range(0, pattern.length).forEach(buffer::putInt);
-            byte[] patternBytes = buffer.array();
+        try (Statement stmt = this.connect().createStatement()) {
+            stmt.execute("DROP TABLE game_save");
+        }
+        System.out.println("Migrated " + names.size() + " saves to version " + SCHEMA_VERSION);
+    }
 
-            stmt.setBytes(11, patternBytes);*/
+    private interface Work {
+        void run() throws SQLException, IOException;
+    }
 
-            stmt.setInt(9, saveData.encodedHealth);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            System.out.println(e.getMessage());
+    // Runs the work in a single SQLite transaction, rolled back when it throws.
+    private void runInTransaction(Work work) throws SQLException, IOException {
+        Connection conn = this.connect();
+        conn.setAutoCommit(false);
+        try {
+            work.run();
+            conn.commit();
+        } catch (SQLException | IOException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
         }
     }
 
-    public void updateGems(String saveName, SaveData saveData) {
-        String sql = "UPDATE game_save SET gemGreen=?, gemRed=?, gemYellow=?, gemBlue=?, gemSkull=?, gemExp=?, gemGold=?, health=? WHERE save_name=?";
-
-        try (Connection conn = this.connect();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            for (int i = 1; i <= saveData.encodedGems.size(); i++) {
-                stmt.setInt(i, saveData.encodedGems.get(GemType.values()[i - 1]));
-            }
+    @Override
+    public synchronized void transaction(Transaction body) throws IOException {
+        try {
+            runInTransaction(body::run);
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 
-            stmt.setInt(8, saveData.encodedHealth);
-            stmt.setString(9, saveName);
+    @Override
+    public synchronized void insert(String saveName, SaveData saveData) throws IOException {
+        try {
+            write(saveName, saveData, true);
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 
-            stmt.executeUpdate();
+    @Override
+    public synchronized void update(String saveName, SaveData saveData) throws IOException {
+        try {
+            write(saveName, saveData, false);
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            throw new IOException(e.getMessage(), e);
         }
     }
 
-    public SaveData getGems(String saveName) {
-        String sql = "SELECT * FROM game_save WHERE save_name = ?";
-        Map<GemType, Integer> gems = new HashMap<>();
-        int health = 0;
+    private void write(String saveName, SaveData saveData, boolean create) throws SQLException {
+        String sql = create
+                ? "INSERT INTO save(save_name, current_player, board, random_state) VALUES(?,?,?,?)"
+                + " ON CONFLICT(save_name) DO UPDATE SET current_player=excluded.current_player,"
+                + " board=excluded.board, random_state=excluded.random_state"
+                : "UPDATE save SET current_player=?, board=?, random_state=? WHERE save_name=?";
+
+        PreparedStatement stmt = this.prepare(sql);
+        int i = 1;
+        if (create) {
+            stmt.setString(i++, saveName);
+        }
+        stmt.setInt(i++, saveData.currentPlayer);
+        stmt.setBytes(i++, saveData.board);
+        stmt.setLong(i++, saveData.randomState);
+        if (!create) {
+            stmt.setString(i, saveName);
+        }
+        if (stmt.executeUpdate() == 0) {
+            return;
+        }
 
-        try (Connection conn = this.connect();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long id = getId(saveName);
+        stmt = this.prepare(PLAYER_INSERT);
+        for (int player = 0; player < SaveData.PLAYERS; player++) {
+            stmt.setLong(1, id);
+            stmt.setInt(2, player);
+            stmt.setInt(3, saveData.health[player]);
+            stmt.setInt(4, saveData.maxHealth[player]);
+            stmt.setBoolean(5, saveData.nextTurn[player]);
+            for (int gem = 0; gem < COLUMNS.length; gem++) {
+                stmt.setInt(6 + gem, saveData.gems[player][gem]);
+            }
+            stmt.executeUpdate();
+        }
+    }
 
-            stmt.setString(1, saveName);
-            ResultSet rs = stmt.executeQuery();
+    private long getId(String saveName) throws SQLException {
+        PreparedStatement stmt = this.prepare("SELECT id FROM save WHERE save_name = ?");
+        stmt.setString(1, saveName);
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("No save named " + saveName);
+            }
+            return rs.getLong(1);
+        }
+    }
 
-            if (rs.next()) {
-                for (GemType gemType : GemType.values()) {
+    @Override
+    public synchronized SaveData getGems(String saveName) {
+        String sql = "SELECT s.current_player, s.board, s.random_state, p.*"
+                + " FROM save s JOIN player p ON p.save_id = s.id WHERE s.save_name = ?";
+        SaveData saveData = null;
 
-                    // "GEM_GREEN" -> "gemGreen"...
-                    String type = gemType.name().toLowerCase();
-                    int i = type.indexOf("_");
-                    String converted = type.substring(0, i) +
-                            type.substring(i + 1).substring(0, 1).toUpperCase() +
-                            type.substring(i + 1).substring(1);
+        try {
+            PreparedStatement stmt = this.prepare(sql);
 
-                    gems.put(gemType, rs.getInt(converted));
+            stmt.setString(1, saveName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (saveData == null) {
+                        saveData = new SaveData();
+                        saveData.currentPlayer = rs.getInt("current_player");
+                        byte[] board = rs.getBytes("board");
+                        saveData.board = board != null && board.length == SaveData.CELLS ? board : null;
+                        saveData.randomState = rs.getLong("random_state");
+                    }
+
+                    int player = rs.getInt("player");
+                    if (player < 0 || player >= SaveData.PLAYERS) {
+                        continue;
+                    }
+                    saveData.health[player] = rs.getInt("health");
+                    saveData.maxHealth[player] = rs.getInt("max_health");
+                    saveData.nextTurn[player] = rs.getBoolean("next_turn");
+                    for (GemType gemType : GemType.values()) {
+                        saveData.gems[player][gemType.ordinal()] = rs.getInt(COLUMNS[gemType.ordinal()]);
+                    }
                 }
-                health = rs.getInt("health");
             }
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
 
-        return new SaveData(gems, health);
+        return saveData;
     }
 
-    public void deleteGems(String saveName) {
-        String sql = "DELETE FROM game_save WHERE save_name = ?";
-
-        try (Connection conn = this.connect();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
+    // The player rows go with it.
+    @Override
+    public synchronized void delete(String saveName) throws IOException {
+        try {
+            PreparedStatement stmt = this.prepare("DELETE FROM save WHERE save_name = ?");
             stmt.setString(1, saveName);
             stmt.executeUpdate();
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            throw new IOException(e.getMessage(), e);
         }
     }
 
-    public List<String> getAllSavesName () {
+    @Override
+    public synchronized List<String> getAllSavesName () {
         List<String> names = new ArrayList<>();
-        String sql = "SELECT save_name FROM game_save";
-        try (Connection conn = this.connect();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        String sql = "SELECT save_name FROM save ORDER BY id";
+        try (ResultSet rs = this.prepare(sql).executeQuery()) {
 
             while (rs.next()) {
                 names.add(rs.getString("save_name"));
@@ -178,23 +362,22 @@ public class Database {
         return names;
     }
 
-    public int getNumSaves() {
-        String sql = "SELECT COUNT(DISTINCT save_id) AS total FROM game_save";
-        int count = 0;
-
-        try (Connection conn = this.connect();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                count = rs.getInt("total");
-            }
-        } catch (SQLException e) {
+    @Override
+    public String getSelected() {
+        try (FileInputStream file = new FileInputStream(selectedFile);
+             DataInputStream data = new DataInputStream(file)) {
+            return data.readUTF();
+        } catch (IOException e) {
             System.out.println(e.getMessage());
+            return null;
         }
-
-        return count;
     }
 
+    @Override
+    public void setSelected(String saveName) throws IOException {
+        try (FileOutputStream file = new FileOutputStream(selectedFile);
+             DataOutputStream data = new DataOutputStream(file)) {
+            data.writeUTF(saveName);
+        }
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.Rectangle;
+
+// The parts of the screen that changed since the last frame, as a few rectangles. Rectangles that
+// touch are merged, and once there are MAX_RECTS of them a new one is merged into the rectangle
+// it grows the least, so a busy frame ends up as a handful of large regions instead of many small ones.
+public class DirtyRegion {
+    static final int MAX_RECTS = 8;
+
+    private final int width;
+    private final int height;
+
+    // Corners of each rectangle, the second one excluded.
+    private final int[] x0 = new int[MAX_RECTS];
+    private final int[] y0 = new int[MAX_RECTS];
+    private final int[] x1 = new int[MAX_RECTS];
+    private final int[] y1 = new int[MAX_RECTS];
+    private int count;
+
+    DirtyRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public void add(int x, int y, int w, int h) {
+        int left = Math.max(x, 0);
+        int top = Math.max(y, 0);
+        int right = Math.min(x + w, width);
+        int bottom = Math.min(y + h, height);
+        if (left >= right || top >= bottom) {
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (left <= x1[i] && right >= x0[i] && top <= y1[i] && bottom >= y0[i]) {
+                merge(i, left, top, right, bottom);
+                return;
+            }
+        }
+
+        if (count < MAX_RECTS) {
+            x0[count] = left;
+            y0[count] = top;
+            x1[count] = right;
+            y1[count] = bottom;
+            count++;
+            return;
+        }
+
+        int best = 0;
+        long bestGrowth = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            long grown = (long) (Math.max(right, x1[i]) - Math.min(left, x0[i])) * (Math.max(bottom, y1[i]) - Math.min(top, y0[i]));
+            long growth = grown - (long) (x1[i] - x0[i]) * (y1[i] - y0[i]);
+            if (growth < bestGrowth) {
+                bestGrowth = growth;
+                best = i;
+            }
+        }
+        merge(best, left, top, right, bottom);
+    }
+
+    public void add(Rectangle r) {
+        add(r.x, r.y, r.width, r.height);
+    }
+
+    public void addAll() {
+        count = 0;
+        add(0, 0, width, height);
+    }
+
+    // Grows the rectangle, then merges it with the ones it touches now.
+    private void merge(int i, int left, int top, int right, int bottom) {
+        x0[i] = Math.min(x0[i], left);
+        y0[i] = Math.min(y0[i], top);
+        x1[i] = Math.max(x1[i], right);
+        y1[i] = Math.max(y1[i], bottom);
+
+        for (int j = 0; j < count; j++) {
+            if (j != i && x0[i] <= x1[j] && x1[i] >= x0[j] && y0[i] <= y1[j] && y1[i] >= y0[j]) {
+                int last = --count;
+                int left2 = x0[j];
+                int top2 = y0[j];
+                int right2 = x1[j];
+                int bottom2 = y1[j];
+                x0[j] = x0[last];
+                y0[j] = y0[last];
+                x1[j] = x1[last];
+                y1[j] = y1[last];
+                merge(i == last ? j : i, left2, top2, right2, bottom2);
+                return;
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    // Fills r with the rectangle and returns it.
+    public Rectangle get(int i, Rectangle r) {
+        r.setBounds(x0[i], y0[i], x1[i] - x0[i], y1[i] - y0[i]);
+        return r;
+    }
+
+    // The share of the screen covered, counting overlaps twice.
+    public double getCoverage() {
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            area += (long) (x1[i] - x0[i]) * (y1[i] - y0[i]);
+        }
+        return (double) area / ((long) width * height);
+    }
+
+    public void clear() {
+        count = 0;
+    }
+}
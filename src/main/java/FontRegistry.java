@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+// Loads every TTF once and keeps the sizes derived from it, so labels share their Font instances.
+public class FontRegistry {
+    public static final String MORRIS_ROMAN = "MorrisRoman-Black.ttf";
+
+    private static final Map<String, Font> fonts = new HashMap<>();
+    private static final Map<String, Map<Float, Font>> sizes = new HashMap<>();
+
+    // Looks for the font on the classpath first and then in the resources folder.
+    private static Font load(String name) throws IOException, FontFormatException {
+        Font font;
+        try (InputStream stream = FontRegistry.class.getResourceAsStream("/" + name)) {
+            if (stream != null) {
+                font = Font.createFont(Font.TRUETYPE_FONT, stream);
+            } else {
+                font = Font.createFont(Font.TRUETYPE_FONT, new File("resources", name));
+            }
+        }
+        GraphicsEnvironment.getLocalGraphicsEnvironment().registerFont(font);
+        return font;
+    }
+
+    public static synchronized Font getFont(String name) {
+        Font font = fonts.get(name);
+        if (font == null) {
+            try {
+                font = load(name);
+            } catch (Exception e) {
+                e.printStackTrace();
+                // Falls back to a logical font so a missing file does not take the text down with it.
+                font = new Font(Font.SERIF, Font.BOLD, 1);
+            }
+            fonts.put(name, font);
+        }
+        return font;
+    }
+
+    public static synchronized Font getFont(String name, float size) {
+        Map<Float, Font> derived = sizes.computeIfAbsent(name, key -> new HashMap<>());
+        Font font = derived.get(size);
+        if (font == null) {
+            font = getFont(name).deriveFont(size);
+            derived.put(size, font);
+        }
+        return font;
+    }
+}
@@ -25,74 +25,175 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.image.BufferStrategy;
 import java.util.concurrent.TimeUnit;
 
 public class Game extends Canvas implements Runnable, KeyListener {
     private static Thread thread;
-    private static final long TIME_FRAME = 1000 / 60;
-    private static long lastTime;
+    // The simulation always advances in steps of 1/60 s, whatever the rendering rate is.
+    public static final double TIME_STEP = 1.0 / 60.0;
+    private static final long STEP_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+    // Updates run per rendered frame before the remaining time is dropped.
+    private static final int MAX_FRAME_SKIP = 5;
+    // Frames per second, 0 renders as fast as possible. Set with -Dpuzzle.fps=<n>.
+    private static final int TARGET_FPS = Integer.getInteger("puzzle.fps", 60);
+    private static final long SPIN_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
     private static boolean isRunning = true;
 
+    // How far the simulation is between the last step and the next one, from 0 to 1.
+    private static double interpolation;
+    // Set when the window system asks for the canvas again, after it was covered for instance.
+    private volatile boolean exposed;
+
+    // Input recorded on the AWT event thread, handled on the game thread at the start of a tick.
+    private static final int INPUT_CAPACITY = 256;
+    private final transient InputQueue input = new InputQueue(INPUT_CAPACITY);
+    private final transient MouseHandler mouse = new MouseHandler();
+    private final transient InputQueue.InputHandler inputHandler = this::handleInput;
+
     Game() {
         new GameMenu();
-        MouseEvents mouseEvents = new MouseEvents();
+        Metrics.watch(input);
+        MouseEvents mouseEvents = new MouseEvents(input);
         this.addMouseListener(mouseEvents);
         this.addMouseMotionListener(mouseEvents);
         this.addKeyListener(this);
     }
 
+    public static double getInterpolation() {
+        return interpolation;
+    }
+
     public void run() {
-        createBufferStrategy(3);
-        BufferStrategy bs = getBufferStrategy();
+        CanvasTarget target = new CanvasTarget(this, 3);
 
         requestFocus();
+        RetainedFrame frame = new RetainedFrame(getWidth(), getHeight());
+        boolean overlayShown = false;
 
-        lastTime = System.currentTimeMillis();
-        long curTime = System.currentTimeMillis();
+        long frameNanos = TARGET_FPS > 0 ? TimeUnit.SECONDS.toNanos(1) / TARGET_FPS : 0;
+        long lastTime = System.nanoTime();
+        long nextFrame = lastTime;
+        long accumulator = 0;
         while (isRunning) {
-            do {
+            long curTime = System.nanoTime();
+            accumulator += curTime - lastTime;
+            lastTime = curTime;
+
+            long updateStart = Metrics.start();
+            int steps = 0;
+            while (accumulator >= STEP_NANOS && steps < MAX_FRAME_SKIP) {
+                update(TIME_STEP);
+                accumulator -= STEP_NANOS;
+                steps++;
+            }
+            Metrics.stop(Metrics.UPDATE, updateStart);
+
+            // Rendering fell too far behind, catching up would only make it worse.
+            if (accumulator >= STEP_NANOS) {
+                accumulator %= STEP_NANOS;
+            }
+            interpolation = (double) accumulator / STEP_NANOS;
+
+            long renderStart = Metrics.start();
+            boolean changed = frame.update(getGraphicsConfiguration());
+            // The screen stays as it is until something changes.
+            boolean overlay = Metrics.isOverlayVisible();
+            boolean present = changed || exposed || overlay || overlayShown || Metrics.hasPendingInput();
+            overlayShown = overlay;
+            if (present) {
+                exposed = false;
                 do {
-                    long elapsedTime = curTime - lastTime;
-
-                    Graphics g = bs.getDrawGraphics();
-                    render(g);
-                    g.dispose();
-
-                    while (elapsedTime < TIME_FRAME) {
-                        try {
-                            TimeUnit.MILLISECONDS.sleep(TIME_FRAME - elapsedTime);
-                        } catch (InterruptedException e) {
-                            throw new RuntimeException("Uncaught", e);
-                        }
-                 
-                        curTime = System.currentTimeMillis();
-                        elapsedTime = curTime - lastTime;
-
-                        double elapsed = elapsedTime / 1000.0f;
-                        update(elapsed);
-                        lastTime = System.currentTimeMillis();
-                    }
-                } while (bs.contentsRestored());
-                bs.show();
-            } while (bs.contentsLost());
+                    Graphics g = target.begin();
+                    frame.present(g);
+                    Metrics.render(g);
+                } while (!target.end());
+                Metrics.presented();
+            }
+            Metrics.stop(Metrics.RENDER, renderStart);
+            Metrics.endFrame();
+
+            if (frameNanos > 0) {
+                nextFrame += frameNanos;
+                long now = System.nanoTime();
+                if (nextFrame < now - frameNanos) {
+                    // Too late to keep the cadence, start counting again from now.
+                    nextFrame = now;
+                }
+                // Only a frame that was shown needs the next one on time, an idle screen just sleeps.
+                waitUntil(nextFrame, present);
+            } else if (!present) {
+                // Nothing to show, wait for the next update instead of spinning.
+                waitUntil(curTime + STEP_NANOS - accumulator, false);
+            }
+        }
+        target.dispose();
+    }
+
+    // Sleeps most of the time left and spins the last bit, sleep alone overshoots by a millisecond or more.
+    // Without spin it only sleeps, for waits where overshooting costs nothing.
+    private static void waitUntil(long deadline, boolean spin) {
+        long remaining = deadline - System.nanoTime();
+        while (remaining > 0) {
+            if (!spin) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException("Uncaught", e);
+                }
+            } else if (remaining > SPIN_NANOS) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining - SPIN_NANOS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException("Uncaught", e);
+                }
+            } else {
+                Thread.onSpinWait();
+            }
+            remaining = deadline - System.nanoTime();
         }
-        bs.dispose();
     }
 
     public void update(double dt) {
+        input.drain(inputHandler);
         GameMenu.update(dt);
     }
 
-    public void render(Graphics g) {
-        GameMenu.render(g);
+    private void handleInput(int type, int x, int y, int code, long time) {
+        if (type == InputQueue.MOUSE_PRESSED || type == InputQueue.KEY_PRESSED) {
+            Metrics.inputHandled(type, time);
+        }
+
+        if (type == InputQueue.KEY_PRESSED) {
+            if (code == KeyEvent.VK_F3) {
+                Metrics.toggleOverlay();
+            }
+            GameMenu.keyPressed(code);
+            return;
+        }
+
+        mouse.set(type, x, y, code, time);
+        GameMenu.mouseEvent(mouse);
+    }
+
+    // The frames are shown through the buffer strategy, the window system only needs to know that
+    // the canvas has to be shown again. Not clearing it first avoids a flash of the background.
+    @Override
+    public void paint(Graphics g) {
+        exposed = true;
+    }
+
+    @Override
+    public void update(Graphics g) {
+        paint(g);
     }
 
     @Override
     public void keyTyped(KeyEvent e) {}
 
     @Override
-    public void keyPressed(KeyEvent e) {GameMenu.keyPressed(e);}
+    public void keyPressed(KeyEvent e) {
+        input.offer(InputQueue.KEY_PRESSED, 0, 0, e.getKeyCode(), System.nanoTime());
+    }
 
     @Override
     public void keyReleased(KeyEvent e) {}
@@ -103,6 +204,7 @@ public class Game extends Canvas implements Runnable, KeyListener {
     }
 
     public static void main(String[] args) {
+        Metrics.dumpOnExit();
         Game game = new Game();
         game.setBackground(Color.BLACK);
         JFrame frame = new JFrame("Puzzle Quest");
@@ -118,5 +220,6 @@ public class Game extends Canvas implements Runnable, KeyListener {
         frame.setAlwaysOnTop(false);
 
         game.start();
+        SyntheticInput.startIfEnabled(game);
     }
 }
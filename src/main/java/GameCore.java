@@ -0,0 +1,205 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// Match, cascade and score logic of a game without any rendering, animation or asset,
+// so it can be played headless as fast as the board allows.
+public class GameCore {
+    private static final GemType[] TYPES = GemType.values();
+
+    private final int numRows;
+    private final int numColumns;
+    private final BitBoard board;
+    private final MoveIndex moves;
+    private final ScoreRules rules;
+    private final Rng random;
+
+    private long swapCount;
+    private long runCount;
+    private long cascadeCount;
+
+    GameCore(int numRows, int numColumns, long seed) {
+        if (numRows > BitBoard.SIZE || numColumns > BitBoard.SIZE) {
+            throw new IllegalArgumentException("Board can't be larger than " + BitBoard.SIZE + "x" + BitBoard.SIZE);
+        }
+
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        this.board = new BitBoard();
+        this.moves = new MoveIndex(board, numRows, numColumns);
+        this.rules = new ScoreRules();
+        this.random = new Rng(seed);
+    }
+
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    public MoveIndex getMoves() {
+        return moves;
+    }
+
+    public ScoreRules getRules() {
+        return rules;
+    }
+
+    public Rng getRandom() {
+        return random;
+    }
+
+    public long getSwapCount() {
+        return swapCount;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public long getCascadeCount() {
+        return cascadeCount;
+    }
+
+    private GemType randomType() {
+        return TYPES[random.nextInt(0, TYPES.length)];
+    }
+
+    public void newGame() {
+        rules.reset();
+        generate();
+    }
+
+    // Fills the board with random gems, dropping the runs it was born with and starting over
+    // when no move is left, just like the grid does on screen.
+    public void generate() {
+        do {
+            board.clear();
+            for (int i = 0; i < numRows; i++) {
+                for (int j = 0; j < numColumns; j++) {
+                    board.set(i, j, randomType());
+                }
+            }
+            resolve();
+        } while (!moves.hasMoves());
+        rules.currentPlayer = 0;
+    }
+
+    public boolean swap(int move) {
+        int cellA = MoveIndex.getCell(move);
+        int cellB = MoveIndex.getTarget(move);
+        return swap(BitBoard.row(cellA), BitBoard.column(cellA), BitBoard.row(cellB), BitBoard.column(cellB));
+    }
+
+    // Swaps two adjacent gems if that creates a match, scores the runs and resolves the cascades.
+    public boolean swap(int rowA, int columnA, int rowB, int columnB) {
+        if (!moves.isLegal(rowA, columnA, rowB, columnB)) {
+            return false;
+        }
+
+        board.swap(rowA, columnA, rowB, columnB);
+        board.findMatches();
+        swapCount++;
+
+        boolean skullsToRed = false;
+        boolean redsToSkull = false;
+        for (int i = 0; i < board.getRunCount(); i++) {
+            GemType type = board.getRunType(i);
+            if (type == GemType.GEM_GREEN) {
+                skullsToRed = true;
+            } else if (type == GemType.GEM_BLUE) {
+                redsToSkull = true;
+            }
+            rules.addGem(type, board.getRunLength(i));
+        }
+        runCount += board.getRunCount();
+        rules.clampHealth();
+
+        // Green and blue runs turn the gems left on the board into another color, both at once.
+        long matched = board.getMatchMask();
+        long skulls = skullsToRed ? board.getMask(GemType.GEM_SKULL) & ~matched : 0L;
+        long reds = redsToSkull ? board.getMask(GemType.GEM_RED) & ~matched : 0L;
+
+        clearMatches();
+        replace(skulls, GemType.GEM_RED);
+        replace(reds, GemType.GEM_SKULL);
+        collapse();
+        resolve();
+
+        if (!moves.hasMoves()) {
+            generate();
+        }
+        return true;
+    }
+
+    // Clears and refills runs until the board is stable. Cascades are not scored.
+    public int resolve() {
+        int cascades = 0;
+        while (board.findMatches()) {
+            clearMatches();
+            collapse();
+            cascades++;
+        }
+        cascadeCount += cascades;
+        return cascades;
+    }
+
+    private void clearMatches() {
+        for (long mask = board.getMatchMask(); mask != 0L; mask &= mask - 1) {
+            int cell = Long.numberOfTrailingZeros(mask);
+            board.set(BitBoard.row(cell), BitBoard.column(cell), null);
+        }
+    }
+
+    private void replace(long mask, GemType type) {
+        for (; mask != 0L; mask &= mask - 1) {
+            int cell = Long.numberOfTrailingZeros(mask);
+            board.set(BitBoard.row(cell), BitBoard.column(cell), type);
+        }
+    }
+
+    // Drops the gems over the empty cells and inserts new gems on top.
+    private void collapse() {
+        for (int i = 0; i < numRows; i++) {
+            int target = numColumns - 1;
+            for (int j = numColumns - 1; j >= 0; j--) {
+                GemType type = board.get(i, j);
+                if (type != null) {
+                    if (target != j) {
+                        board.set(i, target, type);
+                    }
+                    target--;
+                }
+            }
+            for (int j = target; j >= 0; j--) {
+                board.set(i, j, randomType());
+            }
+        }
+    }
+
+    public boolean hasWinner() {
+        return rules.anyPlayerWinner();
+    }
+
+    public int getWinner() {
+        return rules.getWinner();
+    }
+}
@@ -26,54 +26,71 @@ import org.joml.Vector2i;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.io.*;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class GameMenu {
     private static Grid grid;
-    private static Sprite backgroundSprite;
+    private static BattleScreen battle;
     private static Sprite splashSprite;
 
     private static Label label;
     private static Button[] button = new Button[3];
     private static Menu menu;
-    private static Database database;
-    private static boolean renderGame;
+    private static SaveWriter saveWriter;
+    // Read by the synthetic input on the AWT event thread.
+    private static volatile boolean renderGame;
     private static String selectedSave;
+    private static final SpriteBatch batch = new SpriteBatch();
+    // Everything is drawn again on the first frame of a screen.
+    private static boolean screenChanged = true;
+
+    // The splash is shown as soon as its own bitmap is decoded, the menu once the groups it holds are loaded.
+    private static CompletableFuture<Void> loading;
+    private static volatile boolean loaded;
+    private static final Color progressBackground = new Color(0, 0, 0, 160);
+    private static final Color progressColor = new Color(0xC8A040);
+
+    // Asset groups each screen holds while it is shown, the others may be evicted.
+    private static final String[] MENU_GROUPS = {"bmp_skin_backdrop", "bmp_skin_buttmain", "bmp_skin_buttmisc"};
+    static final String[] GAME_GROUPS = {"bmp_skin_backdrop_battle", "bmp_skin_battlemisc",
+            "bmp_skin_gemsgrid", "bmp_skin_buttmain"};
 
     GameMenu() {
 
+        CompletableFuture<Void> precached;
         try {
-            ImageManager.parseJsonFromFile("resources\\Assets.json");
+            precached = ImageManager.loadAssetsAsync("resources\\Assets.json");
         } catch (IOException e) {
             e.printStackTrace();
+            precached = CompletableFuture.completedFuture(null);
         }
 
-        backgroundSprite = ImageManager.getImage("bmp_skin_backdrop_battle", "img_backdrop_battle");
+        loading = CompletableFuture.allOf(precached, ImageManager.acquire(MENU_GROUPS));
         splashSprite = ImageManager.getImage("bmp_skin_backdrop", "img_backdrop");
         selectedSave = null;
-
-        grid = new Grid(8, 8);
         renderGame = false;
+        loaded = false;
 
-        int yPos = 90;
-        try (FileInputStream file = new FileInputStream("puzzle.bin");
-             DataInputStream data = new DataInputStream(file)) {
-            selectedSave = data.readUTF();
+        SaveStore store = SaveStore.open();
+        store.create();
+        selectedSave = store.getSelected();
+        if (selectedSave != null) {
             System.out.println("Selected save: " + selectedSave);
-        } catch (IOException e) {
-            System.out.println(e.getMessage());
         }
 
-        database = new Database();
-        database.create();
+        saveWriter = new SaveWriter(store);
+        // Writes the saves still queued and closes the store when the game exits.
+        Runtime.getRuntime().addShutdownHook(new Thread(saveWriter::close, "Save flush"));
+    }
 
+    // Builds the menu, everything in it needs the assets to be loaded.
+    private static void createMenu() {
+        int yPos = 90;
         if (selectedSave != null) {
             button[0] = new Button(new Vector2i(700, yPos += 60), "Continue");
             button[0].setCallback(() -> {
-                load(selectedSave);
-                startGame();
+                startGame(load(selectedSave));
             });
         }
 
@@ -95,16 +112,9 @@ public class GameMenu {
             }
             ScoreBoard.playerScore[0].restart();
             ScoreBoard.playerScore[1].restart();
+            startGame(null);
             save(selectedSave, count == 10);
-            startGame();
-
-            try (FileOutputStream file = new FileOutputStream("puzzle.bin");
-                 DataOutputStream data = new DataOutputStream(file)) {
-                data.writeUTF(selectedSave);
-                load(selectedSave);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            saveWriter.select(selectedSave);
         });
 
         menu = new Menu(new Vector2i(700, yPos + 60));
@@ -112,7 +122,7 @@ public class GameMenu {
 
         button[2].setCallback(() -> {
             menu.disable = !menu.disable;
-            List<String> saves = database.getAllSavesName();
+            List<String> saves = saveWriter.getAllSavesName();
             if (!saves.isEmpty()) {
                 saves.forEach(save -> menu.addItem(save.replaceAll("(\\D)(\\d+)", "$1 $2"), save));
             }
@@ -121,60 +131,107 @@ public class GameMenu {
         menu.setCallback((item, delete) -> {
             if (delete) {
                 System.out.println("deleted sava: " + item);
-                database.deleteGems(item);
+                saveWriter.delete(item, GameMenu::saved);
             } else {
-                load(item);
+                SaveData saveData = load(item);
                 System.out.println("selected save: " + item);
-                startGame();
+                startGame(saveData);
             }
         });
     }
 
-    private void startGame() {
-        grid.generateGrid();
-        renderGame = true;
+    // Resumes the board of the save, or starts a new one when there is none.
+    private static void startGame(SaveData saveData) {
+        // Switches first, so the groups of the game are decoded together before the grid looks them up.
+        showGame(true);
+        // The grid is only built the first time a game starts.
+        if (grid == null) {
+            grid = new Grid(8, 8);
+            battle = new BattleScreen(grid);
+        }
+        if (saveData != null) {
+            grid.restoreState(saveData);
+        } else {
+            grid.generateGrid();
+        }
         menu.disable = true;
     }
 
-    private static void save(String saveName, boolean update) {
-        Map<GemType, Integer> encodedValues = new HashMap<>();
-        for (int i = 0; i < GemType.values().length; i++) {
-            int gem1 = ScoreBoard.playerScore[0].gemCount.get(GemType.values()[i]);
-            int gem2 = ScoreBoard.playerScore[1].gemCount.get(GemType.values()[i]);
-            int encoded = gem1 | (gem2 << 0x8);
-            encodedValues.put(GemType.values()[i], encoded);
+    // Switches screens, taking the groups of the new one before letting go of the old ones. The switch
+    // waits for the new groups, so no sprite of the screen is drawn before its pixels are there.
+    private static void showGame(boolean game) {
+        if (game != renderGame) {
+            CompletableFuture<Void> assets = ImageManager.acquire(game ? GAME_GROUPS : MENU_GROUPS);
+            ImageManager.release(game ? MENU_GROUPS : GAME_GROUPS);
+            assets.join();
+            if (!game && battle != null) {
+                battle.dispose();
+            }
         }
+        renderGame = game;
+        screenChanged = true;
+    }
 
-        int encodedHealth = ScoreBoard.playerScore[0].health |
-                (ScoreBoard.playerScore[0].maxHealth << 0x8) |
-                (ScoreBoard.playerScore[1].health << 0x10) |
-                (ScoreBoard.playerScore[1].maxHealth << 0x18);
+    private static void save(String saveName, boolean update) {
+        SaveData saveData = new SaveData();
+        for (int player = 0; player < SaveData.PLAYERS; player++) {
+            PlayerScore score = ScoreBoard.playerScore[player];
+            for (GemType gemType : GemType.values()) {
+                saveData.gems[player][gemType.ordinal()] = score.getGemCount(gemType);
+            }
+            saveData.health[player] = score.health;
+            saveData.maxHealth[player] = score.maxHealth;
+            saveData.nextTurn[player] = score.nextTurn;
+        }
+        saveData.currentPlayer = ScoreBoard.rules.currentPlayer;
+        if (grid != null) {
+            grid.saveState(saveData);
+        }
 
         if (update) {
-            database.updateGems(saveName, new SaveData(encodedValues, encodedHealth));
+            saveWriter.update(saveName, saveData, GameMenu::saved);
         } else {
-            database.insertGems(saveName, new SaveData(encodedValues, encodedHealth));
+            saveWriter.insert(saveName, saveData, GameMenu::saved);
         }
     }
 
-    private void load(String saveName) {
-        SaveData saveData = database.getGems(saveName);
+    // Called on the save writer thread.
+    private static void saved(String saveName, Exception error) {
+        if (error != null) {
+            System.out.println("Could not save " + saveName + ": " + error.getMessage());
+        }
+    }
 
-        for (GemType gemType : saveData.encodedGems.keySet()) {
-            int encoded = saveData.encodedGems.get(gemType);
-            int gem1 = encoded & 0xFF;
-            int gem2 = (encoded >> 0x8) & 0xFF;
-            ScoreBoard.playerScore[0].gemCount.put(gemType, gem1);
-            ScoreBoard.playerScore[1].gemCount.put(gemType, gem2);
+    // Puts the scores of the save back, the board is restored by startGame.
+    private static SaveData load(String saveName) {
+        SaveData saveData = saveWriter.get(saveName);
+        if (saveData == null) {
+            System.out.println("No save named " + saveName);
+            ScoreBoard.rules.reset();
+            return null;
         }
 
-        ScoreBoard.playerScore[0].health = (saveData.encodedHealth) & 0xFF;
-        ScoreBoard.playerScore[0].maxHealth = (saveData.encodedHealth >> 0x8) & 0xFF;
-        ScoreBoard.playerScore[1].health = (saveData.encodedHealth >> 0x10) & 0xFF;
-        ScoreBoard.playerScore[1].maxHealth = (saveData.encodedHealth >> 0x18) & 0xFF;
+        for (int player = 0; player < SaveData.PLAYERS; player++) {
+            PlayerScore score = ScoreBoard.playerScore[player];
+            for (GemType gemType : GemType.values()) {
+                score.setGemCount(gemType, saveData.gems[player][gemType.ordinal()]);
+            }
+            score.health = saveData.health[player];
+            score.maxHealth = saveData.maxHealth[player];
+            score.nextTurn = saveData.nextTurn[player];
+        }
+        return saveData;
     }
 
     public static void update(double dt) {
+        if (!loaded) {
+            if (!loading.isDone()) {
+                return;
+            }
+            createMenu();
+            loaded = true;
+        }
+
         if (renderGame) {
             grid.update(dt);
         } else {
@@ -189,21 +246,53 @@ public class GameMenu {
     }
 
     public static void render(Graphics g) {
+        if (!loaded) {
+            if (splashSprite != null) {
+                splashSprite.render(g, 0, 0, 1024, 768);
+            }
+            g.setColor(progressBackground);
+            g.fillRect(312, 700, 400, 12);
+            g.setColor(progressColor);
+            g.fillRect(314, 702, (int) (396 * ImageManager.getLoadProgress()), 8);
+            return;
+        }
+
         if (renderGame) {
-            backgroundSprite.render(g, 0, 0, 1024, 768);
-            grid.render(g);
+            battle.render(g);
         } else {
             splashSprite.render(g, 0, 0, 1024, 768);
+            batch.begin(g);
             for (var btn : button) {
                 if (btn != null) {
-                    btn.render(g);
+                    btn.render(batch);
                 }
             }
+            batch.end();
             menu.render(g);
         }
     }
 
+    // Adds to the region what changed on screen since the last call. Only the game screen keeps
+    // track of it, the menu and the loading screen change everything every frame.
+    public static void damage(DirtyRegion region) {
+        if (!loaded || !renderGame || screenChanged) {
+            region.addAll();
+            screenChanged = false;
+        }
+        if (loaded && renderGame) {
+            battle.damage(region);
+        }
+    }
+
+    public static boolean isPlaying() {
+        return loaded && renderGame;
+    }
+
     public static void mouseEvent(MouseHandler handler) {
+        if (!loaded) {
+            return;
+        }
+
         if (renderGame) {
             grid.mouseEvent(handler);
         } else {
@@ -216,9 +305,9 @@ public class GameMenu {
         }
     }
 
-    public static void keyPressed(KeyEvent e) {
-        if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
-            renderGame = !renderGame;
+    public static void keyPressed(int keyCode) {
+        if (keyCode == KeyEvent.VK_ESCAPE && grid != null) {
+            showGame(!renderGame);
             System.out.println("updating: " + selectedSave);
             save(selectedSave, true);
         }
@@ -23,7 +23,6 @@
  */
 
 import org.joml.Vector2i;
-import java.awt.*;
 import java.awt.image.BufferedImage;
 
 enum GemType {
@@ -51,36 +50,21 @@ public class Gem {
 
     public Vector2i coord;
     public Vector2i pos;
-    public float alpha;
 
-    public boolean isFadingOut;
-    public boolean isSwapping;
-    public boolean isMoving;
-
-    public GemAnimation fadeoutAnim;
-    public GemAnimation swapAnim;
-    public GemAnimation movingDownAnim;
-
-    public Vector2i start;
-    public Vector2i end;
-
-    public int fromY;
-    public int toY;
-    private Gem parent;
+    private final GemAnimator animator;
+    private final int slot;
 
     int randX;
     int randY;
-    public boolean unscramble;
 
-    Gem() {
-        this.alpha = 1f;
+    Gem(GemAnimator animator, int slot) {
         this.coord = new Vector2i();
         this.pos = new Vector2i();
-        this.fadeoutAnim = new GemAnimation();
-        this.swapAnim = new GemAnimation();
-        this.movingDownAnim = new GemAnimation();
+        this.animator = animator;
+        this.slot = slot;
         this.randX =  MathUtils.randInt(-10, 10);
         this.randY = MathUtils.randInt(10, 90);
+        animator.attach(slot, this);
     }
 
     public boolean isEqual(Gem parent) {
@@ -92,7 +76,7 @@ public class Gem {
     }
 
     public void setCoord(int x, int y) {
-        this.coord = new Vector2i(x, y);
+        this.coord.set(x, y);
     }
 
     public void setPosition(Vector2i position) {
@@ -107,108 +91,43 @@ public class Gem {
         this.sprite = sprite;
     }
 
+    public float getAlpha() {
+        return this.animator.getAlpha(this.slot);
+    }
+
+    public void setAlpha(float alpha) {
+        this.animator.setAlpha(this.slot, alpha);
+    }
+
     public void moveDown(int toY, boolean unscramble, double speed) {
-        this.fromY = pos.y;
-        this.toY = toY;
-        this.movingDownAnim = new GemAnimation(0, speed);
-        this.isMoving = true;
-        this.unscramble = unscramble;
+        this.animator.moveDown(this.slot, toY, unscramble, speed);
     }
 
     public void move(Gem parent) {
-        this.start = new Vector2i(pos);
-        this.end = new Vector2i(parent.pos);
-        this.parent = parent;
-        this.swapAnim = new GemAnimation(0, 0.4f);
-        this.isSwapping = true;
+        this.animator.move(this.slot, parent);
     }
 
     public void fadeOut() {
-        this.fadeoutAnim = new GemAnimation(0, 0.2f);
-        this.isFadingOut = true;
+        this.animator.fadeOut(this.slot);
     }
 
     public boolean isFadeOutComplete() {
-        return this.fadeoutAnim.time >= this.fadeoutAnim.total && !this.isFadingOut;
+        return this.animator.isFadeOutComplete(this.slot);
     }
 
     public boolean hasSwapped() {
-        return !(this.swapAnim.time < this.swapAnim.total);
+        return this.animator.hasSwapped(this.slot);
     }
 
     public boolean hasMovedDown() {
-        return this.movingDownAnim.time >= this.movingDownAnim.total && !isMoving;
+        return this.animator.hasMovedDown(this.slot);
     }
 
-    public double updateFade(double dt, double animTime, double animDuration) {
-        if (animTime < 0f) {
-            return animTime;
-        }
-
-        animTime += dt;
-
-        if (isMoving) {
-            if (animTime >= animDuration) {
-                animTime = animDuration;
-                isMoving = false;
-            } else {
-                if (unscramble) {
-                    pos.x += (int) (randX * 0.5);
-                }
-                pos.y += (int) (animTime * 60 / animDuration);
-
-              //  System.out.println( this.fromY);
-                if (pos.y >= toY) {
-                    pos.y = toY;
-                    animTime= 1.0f;
-                }
-            }
-        } else if (isSwapping) {
-            if (animTime >= animDuration) {
-                animTime = animDuration;
-                isSwapping = false;
-            }
-
-            int dx = Math.abs(coord.x - parent.coord.x);
-            int dy = Math.abs(coord.y - parent.coord.y);
-            if (dx == 1) {
-                pos.x = (int) MathUtils.lerp(this.start.x, this.end.x, animTime / animDuration);
-            }
-            if (dy == 1) {
-
-                pos.y = (int) MathUtils.lerp(this.start.y, this.end.y, animTime / animDuration);
-            }
-        } else if (isFadingOut) {
-            if (animTime >= animDuration) {
-                animTime = animDuration;
-                isFadingOut = false;
-            }
-            alpha = (float) Math.clamp(1f - animTime / animDuration, 0f, 1f);
-        }
-
-        return animTime;
-    }
-
-    public void update(double dt) {
-        if (this.isMoving) {
-            this.movingDownAnim.time = this.updateFade(dt, this.movingDownAnim.time, this.movingDownAnim.total);
-        } else if (this.isFadingOut) {
-            this.fadeoutAnim.time = this.updateFade(dt, this.fadeoutAnim.time, this.fadeoutAnim.total);
-        } else if (isSwapping) {
-            this.swapAnim.time = this.updateFade(dt, this.swapAnim.time, this.swapAnim.total);
-        }
-    }
-
-    public void draw(Graphics g) {
+    public void draw(SpriteBatch batch) {
         if (this.sprite != null) {
             int w = this.sprite.getWidth();
             int h = this.sprite.getHeight();
-            Graphics2D g2d = (Graphics2D) g;
-
-            Composite originalComposite = g2d.getComposite();
-            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, this.alpha));
-            g2d.drawImage(this.sprite, Grid.offset.x + this.pos.x, Grid.offset.y + this.pos.y, w, h, null);
-            g2d.setComposite(originalComposite);
+            batch.draw(this.sprite, Grid.offset.x + this.pos.x, Grid.offset.y + this.pos.y, w, h, this.getAlpha(), 0);
         }
     }
 }
@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// Animations of every gem of the grid kept in flat arrays, one slot per gem and one channel
+// per kind of animation, so a whole board is advanced in a single loop without allocating.
+public class GemAnimator {
+    public static final int MOVE_DOWN = 0;
+    public static final int FADE_OUT = 1;
+    public static final int SWAP = 2;
+    private static final int CHANNELS = 3;
+
+    private static final double FADE_OUT_TIME = 0.2;
+    private static final double SWAP_TIME = 0.4;
+
+    private static final int AXIS_X = 1;
+    private static final int AXIS_Y = 2;
+
+    private final Gem[] gems;
+
+    // Indexed by slot * CHANNELS + channel.
+    private final double[] time;
+    private final double[] total;
+    private final boolean[] running;
+
+    // Indexed by slot.
+    private final float[] alpha;
+    private final int[] toY;
+    private final boolean[] unscramble;
+    private final int[] startX;
+    private final int[] startY;
+    private final int[] endX;
+    private final int[] endY;
+    private final int[] swapAxis;
+
+    // Channels that have not settled yet.
+    private int active;
+
+    GemAnimator(int capacity) {
+        this.gems = new Gem[capacity];
+        this.time = new double[capacity * CHANNELS];
+        this.total = new double[capacity * CHANNELS];
+        this.running = new boolean[capacity * CHANNELS];
+        this.alpha = new float[capacity];
+        this.toY = new int[capacity];
+        this.unscramble = new boolean[capacity];
+        this.startX = new int[capacity];
+        this.startY = new int[capacity];
+        this.endX = new int[capacity];
+        this.endY = new int[capacity];
+        this.swapAxis = new int[capacity];
+    }
+
+    // Binds a gem to a slot, dropping whatever the previous gem of the slot was doing.
+    public void attach(int slot, Gem gem) {
+        for (int channel = 0; channel < CHANNELS; channel++) {
+            int i = slot * CHANNELS + channel;
+            if (!isSettled(i)) {
+                active--;
+            }
+            time[i] = 0;
+            total[i] = 0;
+            running[i] = false;
+        }
+        gems[slot] = gem;
+        alpha[slot] = 1f;
+    }
+
+    private boolean isSettled(int i) {
+        return !running[i] && time[i] >= total[i];
+    }
+
+    private void start(int slot, int channel, double duration) {
+        int i = slot * CHANNELS + channel;
+        if (isSettled(i)) {
+            active++;
+        }
+        time[i] = 0;
+        total[i] = duration;
+        running[i] = true;
+    }
+
+    public void moveDown(int slot, int toY, boolean unscramble, double duration) {
+        this.toY[slot] = toY;
+        this.unscramble[slot] = unscramble;
+        start(slot, MOVE_DOWN, duration);
+    }
+
+    public void move(int slot, Gem parent) {
+        Gem gem = gems[slot];
+        startX[slot] = gem.pos.x;
+        startY[slot] = gem.pos.y;
+        endX[slot] = parent.pos.x;
+        endY[slot] = parent.pos.y;
+
+        int axis = 0;
+        if (Math.abs(gem.coord.x - parent.coord.x) == 1) {
+            axis |= AXIS_X;
+        }
+        if (Math.abs(gem.coord.y - parent.coord.y) == 1) {
+            axis |= AXIS_Y;
+        }
+        swapAxis[slot] = axis;
+        start(slot, SWAP, SWAP_TIME);
+    }
+
+    public void fadeOut(int slot) {
+        start(slot, FADE_OUT, FADE_OUT_TIME);
+    }
+
+    public boolean hasMovedDown(int slot) {
+        return isSettled(slot * CHANNELS + MOVE_DOWN);
+    }
+
+    public boolean isFadeOutComplete(int slot) {
+        return isSettled(slot * CHANNELS + FADE_OUT);
+    }
+
+    public boolean hasSwapped(int slot) {
+        int i = slot * CHANNELS + SWAP;
+        return !(time[i] < total[i]);
+    }
+
+    public float getAlpha(int slot) {
+        return alpha[slot];
+    }
+
+    public void setAlpha(int slot, float alpha) {
+        this.alpha[slot] = alpha;
+    }
+
+    public boolean isAnimating() {
+        return active > 0;
+    }
+
+    // Advances every gem, only the first running channel of each one: moving down, then fading out, then swapping.
+    public void update(double dt) {
+        if (active == 0) {
+            return;
+        }
+
+        for (int slot = 0; slot < gems.length; slot++) {
+            int base = slot * CHANNELS;
+            int channel;
+            if (running[base + MOVE_DOWN]) {
+                channel = MOVE_DOWN;
+            } else if (running[base + FADE_OUT]) {
+                channel = FADE_OUT;
+            } else if (running[base + SWAP]) {
+                channel = SWAP;
+            } else {
+                continue;
+            }
+
+            int i = base + channel;
+            double duration = total[i];
+            double animTime = time[i] + dt;
+            Gem gem = gems[slot];
+
+            switch (channel) {
+                case MOVE_DOWN:
+                    if (animTime >= duration) {
+                        animTime = duration;
+                        running[i] = false;
+                    } else {
+                        if (unscramble[slot]) {
+                            gem.pos.x += (int) (gem.randX * 0.5);
+                        }
+                        gem.pos.y += (int) (animTime * 60 / duration);
+
+                        if (gem.pos.y >= toY[slot]) {
+                            gem.pos.y = toY[slot];
+                            animTime = 1.0f;
+                        }
+                    }
+                    break;
+                case SWAP:
+                    if (animTime >= duration) {
+                        animTime = duration;
+                        running[i] = false;
+                    }
+                    if ((swapAxis[slot] & AXIS_X) != 0) {
+                        gem.pos.x = (int) MathUtils.lerp(startX[slot], endX[slot], animTime / duration);
+                    }
+                    if ((swapAxis[slot] & AXIS_Y) != 0) {
+                        gem.pos.y = (int) MathUtils.lerp(startY[slot], endY[slot], animTime / duration);
+                    }
+                    break;
+                default:
+                    if (animTime >= duration) {
+                        animTime = duration;
+                        running[i] = false;
+                    }
+                    alpha[slot] = (float) Math.clamp(1f - animTime / duration, 0f, 1f);
+            }
+
+            time[i] = animTime;
+            if (isSettled(i)) {
+                active--;
+            }
+        }
+    }
+}
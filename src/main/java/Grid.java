@@ -24,12 +24,12 @@
 
 import org.joml.Vector2i;
 import java.awt.*;
-import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.List;
 
 public class Grid {
+    private static final GemType[] TYPES = GemType.values();
     public static final int blockSize = 71; // Tamanho do bloco do grid
     public static final int gap = 3; // Espaço entre os blocos do grid
     public static final Vector2i offset = new Vector2i(217, 133);
@@ -52,20 +52,50 @@ public class Grid {
     private Vector2i dragStartCoord;
 
     private Map<String, Sprite> gemsSprites;
-    private List<GemMatch> matches;
+    private final BitBoard board;
+    private final MoveIndex moves;
+    private final int[] moveBuffer = new int[MoveIndex.MAX_MOVES];
     private GemSwap gemSwaps;
     private static ScoreBoard scoreBoard;
     private static boolean generatingGrid;
     private Label message;
     private Label playerWinsText;
     private Button restartBtn;
-    private Map<Gem, GemType> gemsReplace = new HashMap<>();
+    private final GemAnimator animator;
+    private final GemType[] pendingTypes;
+    private boolean hasPendingTypes;
+    private final Sprite[] typeSprites = new Sprite[TYPES.length];
     private int curSelector;
+    // Picks the new gems, its state is saved with the board so a resumed game gets the same ones.
+    private final Rng random = new Rng(System.nanoTime());
+
+    // What each slot, the selector and the board overlays looked like the last time the board
+    // looked for damage, so only what changed since is drawn again.
+    private final BufferedImage[] drawnSprite;
+    private final int[] drawnX;
+    private final int[] drawnY;
+    private final float[] drawnAlpha;
+    private static final int SELECTOR_STATE = 10;
+    private final int[] selectorState = new int[SELECTOR_STATE];
+    private final int[] drawnSelectorState = new int[SELECTOR_STATE];
+    private static final int OVERLAY_STATE = 4;
+    private final int[] overlayState = new int[OVERLAY_STATE];
+    private final int[] drawnOverlayState = new int[OVERLAY_STATE];
 
     Grid(int x, int y) {
+        if (x > BitBoard.SIZE || y > BitBoard.SIZE) {
+            throw new IllegalArgumentException("Grid can't be larger than " + BitBoard.SIZE + "x" + BitBoard.SIZE);
+        }
+
         this.numRows = x;
         this.numColumns = y;
         this.table = new ArrayList<>(x * y);
+        this.animator = new GemAnimator(x * y);
+        this.pendingTypes = new GemType[x * y];
+        this.drawnSprite = new BufferedImage[x * y];
+        this.drawnX = new int[x * y];
+        this.drawnY = new int[x * y];
+        this.drawnAlpha = new float[x * y];
         this.curSelector = 0;
 
         Grid.size = new Vector2i(numRows * (Grid.blockSize + Grid.gap),
@@ -76,7 +106,8 @@ public class Grid {
         this.secondGemSelectedCoord = new Vector2i();
         this.dragStartCoord = new Vector2i();
         this.gemsSprites = new HashMap<>();
-        this.matches = new ArrayList<>();
+        this.board = new BitBoard();
+        this.moves = new MoveIndex(this.board, numRows, numColumns);
         this.gemSwaps = null;
 
         try {
@@ -91,6 +122,7 @@ public class Grid {
                 for (GemType gemType : GemType.values()) {
                     if (gemType.name().toLowerCase().contains(imgName)) {
                         this.gemsSprites.put(imgName, item.sprite);
+                        this.typeSprites[gemType.ordinal()] = item.sprite;
                         break;
                     }
                 }
@@ -135,18 +167,30 @@ public class Grid {
         this.table.add(row * numColumns + column, gem);
     }
 
+    private BufferedImage getGemSprite(GemType type) {
+        return this.typeSprites[type.ordinal()].image;
+    }
+
+    // Changes the type of gem, keeping the match board in sync.
+    private void setGemType(Gem gem, GemType type) {
+        gem.setType(type);
+        this.board.set(gem.coord.x, gem.coord.y, type);
+    }
+
     public void generateGrid() {
         this.table.clear();
+        this.board.clear();
+        Arrays.fill(this.pendingTypes, null);
+        this.hasPendingTypes = false;
         for (int i = 0; i < numRows; i++) {
             for (int j = 0; j < numColumns; j++) {
-                int index = MathUtils.randInt(0, GemType.values().length);
-                GemType type = GemType.values()[index];
+                GemType type = randomType();
                 Sprite sprite = this.gemsSprites.get(type.name().toLowerCase());
 
-                Gem gem = new Gem();
-                gem.setType(type);
-                gem.setSprite(sprite.image);
+                Gem gem = new Gem(this.animator, i * numColumns + j);
                 gem.setCoord(i, j);
+                this.setGemType(gem, type);
+                gem.setSprite(sprite.image);
                 gem.pos.x = i * (Grid.blockSize + Grid.gap);
                 gem.pos.y = j * (Grid.blockSize + Grid.gap + gem.randY / 2) - Grid.size.y;
                 gem.moveDown(j * (Grid.blockSize + Grid.gap), false, 1.0);
@@ -155,11 +199,70 @@ public class Grid {
         }
         firstGemSelectedCoord.set(-1);
         secondGemSelectedCoord.set(-1);
-        ScoreBoard.currentPlayer = 0;
+        ScoreBoard.rules.currentPlayer = 0;
         generatingGrid = true;
         animTime = 0;
     }
 
+    private GemType randomType() {
+        return TYPES[random.nextInt(0, TYPES.length)];
+    }
+
+    // Writes the board and the random state into the save. A gem that is changing type is saved
+    // with the type it is about to get, a gem being removed as an empty cell.
+    public void saveState(SaveData data) {
+        data.board = new byte[SaveData.CELLS];
+        Arrays.fill(data.board, SaveData.EMPTY);
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numColumns; j++) {
+                GemType type = pendingTypes[i * numColumns + j];
+                if (type == null) {
+                    type = this.board.get(i, j);
+                }
+                data.board[BitBoard.index(i, j)] = type == null ? SaveData.EMPTY : (byte) type.ordinal();
+            }
+        }
+        data.randomState = random.getState();
+        data.currentPlayer = ScoreBoard.rules.currentPlayer;
+    }
+
+    // Puts the saved gems back in place at once, without the drop of a new board.
+    // Falls back to a new board when the save has none.
+    public void restoreState(SaveData data) {
+        if (data.board == null || data.board.length != SaveData.CELLS) {
+            generateGrid();
+            return;
+        }
+
+        random.setState(data.randomState);
+        this.table.clear();
+        this.board.clear();
+        Arrays.fill(this.pendingTypes, null);
+        this.hasPendingTypes = false;
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numColumns; j++) {
+                int cell = data.board[BitBoard.index(i, j)];
+                GemType type = cell >= 0 && cell < TYPES.length ? TYPES[cell] : randomType();
+
+                Gem gem = new Gem(this.animator, i * numColumns + j);
+                gem.setCoord(i, j);
+                this.setGemType(gem, type);
+                gem.setSprite(this.getGemSprite(type));
+                gem.pos.x = i * (Grid.blockSize + Grid.gap);
+                gem.pos.y = j * (Grid.blockSize + Grid.gap);
+                this.setGem(i, j, gem);
+            }
+        }
+        firstGemSelectedCoord.set(-1);
+        secondGemSelectedCoord.set(-1);
+        gemSwaps = null;
+        isSwappingBack = false;
+        ScoreBoard.rules.currentPlayer = Math.clamp(data.currentPlayer, 0, SaveData.PLAYERS - 1);
+        curSelector = ScoreBoard.rules.currentPlayer;
+        generatingGrid = false;
+        animTime = 0;
+    }
+
     // Checks if two blocks are adjacent to each other on the grid.
     private boolean isAdjacent(Vector2i coordA, Vector2i coordB) {
         int dX = Math.abs(coordA.x - coordB.x);
@@ -185,43 +288,34 @@ public class Grid {
         return false;
     }
 
-    private boolean canSwap(Vector2i coordA, Vector2i coordB, boolean addToScore) {
-        swap(coordA, coordB);
-        boolean match = this.findMatches(false);
-        swap(coordA, coordB);
-        return match;
+    private boolean canSwap(Vector2i coordA, Vector2i coordB) {
+        return this.moves.isLegal(coordA.x, coordA.y, coordB.x, coordB.y);
     }
 
     private void swap(Vector2i coordA, Vector2i coordB) {
-        Gem gemA = this.getGem(coordA);
-        Gem gemB = this.getGem(coordB);
+        this.swap(coordA.x, coordA.y, coordB.x, coordB.y);
+    }
+
+    private void swap(int rowA, int columnA, int rowB, int columnB) {
+        Gem gemA = this.getGem(rowA, columnA);
+        Gem gemB = this.getGem(rowB, columnB);
 
         GemType type = gemA.gemType;
         BufferedImage sprite = gemA.sprite;
-        gemA.setType(gemB.gemType);
+        this.setGemType(gemA, gemB.gemType);
         gemA.setSprite(gemB.sprite);
-        gemB.setType(type);
+        this.setGemType(gemB, type);
         gemB.setSprite(sprite);
     }
 
     private boolean findAvailableMoves() {
-        for (int x = 0; x < numRows - 1; x++) {
-            for (int y = 0; y < numColumns; y++) {
-                if (this.canSwap(new Vector2i(x, y), new Vector2i(x + 1, y), false)) {
-                    return true;
-                }
-            }
-        }
-
-        for (int y = 0; y < numColumns - 1; y++) {
-            for (int x = 0; x < numRows; x++) {
-                if (this.canSwap(new Vector2i(x, y), new Vector2i(x, y + 1), false)) {
-                    return true;
-                }
-            }
-        }
+        return this.moves.hasMoves();
+    }
 
-        return false;
+    // The first legal move as packed by MoveIndex, or -1 when there is none.
+    public int findMove() {
+        int count = this.moves.getMoves(this.moveBuffer);
+        return count > 0 ? this.moveBuffer[0] : -1;
     }
 
     private void addGemsToScore(int r, int c, int length) {
@@ -234,118 +328,79 @@ public class Grid {
         scoreBoard.addGem(this.getGem(r, c).gemType, length);
     }
 
-    // Scans for and records sequences of three or more identical gems by rows and columns.
+    // Scans for sequences of three or more identical gems by rows and columns.
     private boolean findMatches(boolean addToScore) {
-        this.matches.clear();
-
-        //Check horizontal matches
-        for (int i = 0; i < numRows; i++) {
-            int length = 1;
-            for (int j = 0; j < numColumns; j++) {
-                if (j < numColumns - 1 && this.getGem(i, j).isEqual(this.getGem(i, j + 1))) {
-                    length++;
-                } else {
-                    // Add to the list of match if 3 or more identical gems were found in a row.
-                    if (length >= 3) {
-                        for (int k = 0; k < length; k++) {
-                            this.matches.add(new GemMatch(new Vector2i(i, j - k), length));
-                        }
-                        if (addToScore) {
-                            addGemsToScore(i, j, length);
-                        }
-                    }
-                    length = 1;
-                }
-            }
+        if (!this.board.findMatches()) {
+            return false;
         }
 
-        // Check vertical matches
-        for (int j = 0; j < numColumns; j++) {
-            int length = 1;
-            for (int i = 0; i < numRows; i++) {
-                if (i < numRows - 1 && this.getGem(i, j).isEqual(this.getGem(i + 1, j))) {
-                    length++;
-                } else {
-                    // Add to the list of match if 3 or more identical gems were found in a row.
-                    if (length >= 3) {
-                        for (int k = 0; k < length; k++) {
-                            this.matches.add(new GemMatch(new Vector2i(i - k, j), length));
-                        }
-                        if (addToScore) {
-                            addGemsToScore(i, j, length);
-                        }
-                    }
-                    length = 1;
-                }
+        if (addToScore) {
+            for (int i = 0; i < this.board.getRunCount(); i++) {
+                int cell = this.board.getRunCell(i);
+                addGemsToScore(BitBoard.row(cell), BitBoard.column(cell), this.board.getRunLength(i));
             }
         }
-        return !this.matches.isEmpty();
+        return true;
     }
 
     // Remove all matching gems.
     private void removeMatchingGems() {
-        for (var match : matches) {
-            this.getGem(match.position).setType(null);
-            this.getGem(match.position).fadeOut();
+        long matches = this.board.getMatchMask();
+        while (matches != 0L) {
+            int cell = Long.numberOfTrailingZeros(matches);
+            Gem gem = this.getGem(BitBoard.row(cell), BitBoard.column(cell));
+            this.setGemType(gem, null);
+            gem.fadeOut();
+            matches &= matches - 1;
         }
     }
 
-    // Gets a list of dropping gems.
-    private List<GemDrop> getDroppingGems() {
-        List<GemDrop> dropList = new ArrayList<>();
+    private boolean isGemsFinishedAnim() {
+        return this.animator.isAnimating();
+    }
+
+    // Drop and insert new gems.
+    // Each column is walked from the bottom up, so every cell is checked before a drop changes it.
+    private void dropGems(double dt) {
+        if (this.isGemsFinishedAnim()) {
+            return;
+        }
+
         for (int x = 0; x < numRows; x++) {
             int drop = 0;
             for (int y = numColumns - 1; y >= 0; y--) {
-
-                if (!this.getGem(x, y).isFadeOutComplete())
+                Gem gem = this.getGem(x, y);
+                if (!gem.isFadeOutComplete())
                     continue;
 
-                if (this.getGem(x, y).gemType == null) {
-                    dropList.add(new GemDrop(x, y, 0));
+                if (gem.gemType == null) {
+                    this.dropGem(x, y, 0);
                     drop++;
                 } else if (drop > 0) {
-                    dropList.add(new GemDrop(x, y, drop));
+                    this.dropGem(x, y, drop);
                 }
             }
         }
-
-        return dropList;
     }
 
-    private boolean isGemsFinishedAnim() {
-        return table.stream().anyMatch(gem ->
-                !gem.hasMovedDown() || !gem.isFadeOutComplete() || !gem.hasSwapped()
-        );
-    }
-
-    // Drop and insert new gems.
-    private void dropGems(double dt) {
-        if (this.isGemsFinishedAnim()) {
-            return;
-        }
-
-        var dropList = this.getDroppingGems();
-        for (GemDrop drop : dropList) {
-            Vector2i coord = new Vector2i(drop.x, drop.y + drop.shift);
-
-            // Insert new gems
-            int index = MathUtils.randInt(0, GemType.values().length);
-            GemType type = GemType.values()[index];
-            Sprite sprite = this.gemsSprites.get(type.name().toLowerCase());
-
-            this.getGem(coord).setType(type);
-            this.getGem(coord).setSprite(sprite.image);
-            this.getGem(coord).alpha = 1f;
-            this.getGem(coord).pos.y = (coord.y - 1) * (Grid.blockSize + Grid.gap);
-            this.getGem(coord).moveDown((coord.y) * (Grid.blockSize + Grid.gap), false, 0.2);
-
-            // Swap gems
-            if (drop.shift > 0) {
-                this.getGem(new Vector2i(drop.x, drop.y)).alpha = 1f;
-                swap(new Vector2i(drop.x, drop.y), coord);
-                this.getGem(new Vector2i(drop.x, drop.y)).pos.y = (drop.y - 1) * (Grid.blockSize + Grid.gap);
-                this.getGem(new Vector2i(drop.x, drop.y)).moveDown(drop.y * (Grid.blockSize + Grid.gap), false, 0.2);
-            }
+    private void dropGem(int x, int y, int shift) {
+        Gem target = this.getGem(x, y + shift);
+
+        // Insert new gems
+        GemType type = randomType();
+        this.setGemType(target, type);
+        target.setSprite(this.getGemSprite(type));
+        target.setAlpha(1f);
+        target.pos.y = (y + shift - 1) * (Grid.blockSize + Grid.gap);
+        target.moveDown((y + shift) * (Grid.blockSize + Grid.gap), false, 0.2);
+
+        // Swap gems
+        if (shift > 0) {
+            Gem gem = this.getGem(x, y);
+            gem.setAlpha(1f);
+            swap(x, y, x, y + shift);
+            gem.pos.y = (y - 1) * (Grid.blockSize + Grid.gap);
+            gem.moveDown(y * (Grid.blockSize + Grid.gap), false, 0.2);
         }
     }
 
@@ -361,9 +416,10 @@ public class Grid {
                 if (isAdjacent(gemA.coord, gemB.coord)) {
                     if (trySwap(gemA.coord, gemB.coord)) {
                         // We need to swap the position of the gems too.
-                        Vector2i temp = new Vector2i(gemA.pos);
-                        gemA.pos = new Vector2i(gemB.pos);
-                        gemB.pos = temp;
+                        int x = gemA.pos.x;
+                        int y = gemA.pos.y;
+                        gemA.pos.set(gemB.pos);
+                        gemB.pos.set(x, y);
                         gemSwaps = null;
                     } else {
                         // If the sequence doesn't match, then swap it back.
@@ -393,11 +449,11 @@ public class Grid {
                 secondGemSelectedCoord.set(-1);
                 animateSelector = false;
                 animTime = 0.0f;
-                curSelector = ScoreBoard.currentPlayer;
+                curSelector = ScoreBoard.rules.currentPlayer;
             }
         } else {
             selectorAlpha = 1.0f;
-            selectorSpriteSize = new Vector2i(selectorSprite[0].size);
+            selectorSpriteSize.set(selectorSprite[0].size);
         }
     }
 
@@ -412,20 +468,54 @@ public class Grid {
     }
 
     private void fillGemsWith(GemType from, GemType to) {
-        table.forEach(gem -> {
+        for (int i = 0; i < table.size(); i++) {
+            Gem gem = table.get(i);
             if (gem.gemType == from) {
                 gem.fadeOut();
-                gemsReplace.put(gem, to);
+                pendingTypes[i] = to;
+                hasPendingTypes = true;
             }
-        });
+        }
+    }
+
+    // Gives the faded out gems their new type once every one of them has faded out.
+    private void replacePendingTypes() {
+        if (!hasPendingTypes) {
+            return;
+        }
+
+        boolean animFinished = false;
+        for (int i = 0; i < table.size(); i++) {
+            GemType type = pendingTypes[i];
+            if (type == null) {
+                continue;
+            }
+
+            Gem gem = table.get(i);
+            if (!gem.isFadeOutComplete()) {
+                animFinished = true;
+                continue;
+            }
+            this.setGemType(gem, type);
+            gem.setAlpha(1.0f);
+            gem.setSprite(this.getGemSprite(type));
+        }
+
+        if (!animFinished) {
+            Arrays.fill(pendingTypes, null);
+            hasPendingTypes = false;
+        }
     }
 
     private boolean enablePlayerWinnerDraw = false;
 
-    private void drawPlayerWinner(Graphics g) {
+    private void drawPlayerWinner(SpriteBatch batch) {
         if (!scoreBoard.anyPlayerWinner())
             return;
 
+        // The shade goes over everything drawn before it.
+        batch.flush();
+        Graphics g = batch.getGraphics();
         g.setColor(new Color(0, 0, 0, 0.4f));
         g.fillRect(Grid.offset.x, Grid.offset.y, Grid.size.x, Grid.size.y);
         playerWinsText.text = ScoreBoard.playerScore[0].health > 0 ? "Player 1 wins" : "Player 2 wins";
@@ -434,11 +524,11 @@ public class Grid {
         playerWinsText.backgroundWidth = 20;
         playerWinsText.backgroundColor = new Color(0, 0, 0, 0.8f);
         playerWinsText.outlineWidth = 2;
-        playerWinsText.render(g);
-        restartBtn.render(g);
+        playerWinsText.render(batch);
+        restartBtn.render(batch);
     }
 
-    private void drawMessage(Graphics g) {
+    private void drawMessage(SpriteBatch batch) {
         if (messageAlpha == 0)
             return;
 
@@ -449,7 +539,7 @@ public class Grid {
         message.color = Color.cyan;
         message.color = new Color(message.color.getRed(), message.color.getGreen(), message.color.getBlue(), (int) (messageAlpha * 255));
         message.outlineWidth = 5;
-        message.render(g);
+        message.render(batch);
     }
 
     private boolean hasGemsDestroyed;
@@ -467,7 +557,6 @@ public class Grid {
             }
             if (generatingGrid) {
                 messageAlpha -= (int) (dt);
-                System.out.println(messageAlpha);
             }
 
             if (hasGemsDestroyed && messageAlpha <= 0.5f) {
@@ -478,7 +567,8 @@ public class Grid {
     }
 
     public void update(double dt) {
-        table.forEach(gem -> gem.update(dt));
+        long start = Metrics.start();
+        this.animator.update(dt);
 
         if (generatingGrid) {
             generatingGrid = this.getGem(0, 1).hasMovedDown();
@@ -490,57 +580,124 @@ public class Grid {
             this.processSelector(dt);
             this.availableGems(dt);
         }
+        // The selector turns a degree per step while it is shown.
+        if (firstGemSelectedCoord.x > -1 && firstGemSelectedCoord.y > -1) {
+            selectorSprite[curSelector].angle = (selectorSprite[curSelector].angle + 1) % 360;
+        }
         scoreBoard.update(dt);
         restartBtn.update(dt);
 
-        boolean animFinished = false;
-        for (var item : gemsReplace.entrySet()) {
-            Gem gem = item.getKey();
-            if (!gem.isFadeOutComplete()) {
-                animFinished = true;
-                continue;
-            }
-            GemType type = item.getValue();
-            gem.setType(type);
-            gem.alpha = 1.0f;
-            Sprite sprite = this.gemsSprites.get(type.name().toLowerCase());
-            item.getKey().setSprite(sprite.image);
-        }
-
-        if (!animFinished) {
-            gemsReplace.clear();
-        }
+        this.replacePendingTypes();
 
         if (scoreBoard.anyPlayerWinner() && !enablePlayerWinnerDraw) {
             this.destroyAllGems();
             restartBtn.disable = false;
             enablePlayerWinnerDraw = true;
         }
+        Metrics.stop(Metrics.GRID_UPDATE, start);
     }
 
-    public void render(Graphics g) {
-        table.forEach(gem -> {
-            if(gem != null) {
-                gem.draw(g);
+    public void render(SpriteBatch batch) {
+        for (Gem gem : table) {
+            if (gem != null) {
+                gem.draw(batch);
             }
-        });
+        }
 
         if (firstGemSelectedCoord.x > -1 && firstGemSelectedCoord.y > -1) {
             Vector2i coords = this.getBlockPosition(firstGemSelectedCoord, selectorSprite[curSelector].size);
-            selectorSprite[curSelector].angle = (selectorSprite[curSelector].angle + 1) % 360;
             selectorSprite[curSelector].alpha = selectorAlpha;
-            selectorSprite[curSelector].render(g, coords, selectorSpriteSize);
+            selectorSprite[curSelector].render(batch, coords, selectorSpriteSize);
             if (secondGemSelectedCoord.x > -1 && secondGemSelectedCoord.y > -1) {
                 coords = this.getBlockPosition(secondGemSelectedCoord, selectorSprite[curSelector].size);
-                selectorSprite[curSelector].render(g, coords, selectorSpriteSize);
+                selectorSprite[curSelector].render(batch, coords, selectorSpriteSize);
             }
         }
-        scoreBoard.render(g);
-        drawMessage(g);
-        drawPlayerWinner(g);
+        scoreBoard.render(batch);
+        drawMessage(batch);
+        drawPlayerWinner(batch);
+    }
+
+    // Parts of the board that never change, drawn once into the static layer.
+    public void renderStatic(Graphics g) {
+        scoreBoard.renderStatic(g);
     }
 
-    private Vector2i getCoordFromMousePos(MouseEvent e) {
+    // Adds to the region everything drawn differently since the last call, where it was and where it is now.
+    public void damage(DirtyRegion region) {
+        for (int i = 0; i < drawnSprite.length; i++) {
+            Gem gem = i < table.size() ? table.get(i) : null;
+            BufferedImage sprite = gem != null ? gem.sprite : null;
+            int x = sprite != null ? Grid.offset.x + gem.pos.x : 0;
+            int y = sprite != null ? Grid.offset.y + gem.pos.y : 0;
+            float alpha = sprite != null ? gem.getAlpha() : 0f;
+            if (sprite == drawnSprite[i] && x == drawnX[i] && y == drawnY[i] && alpha == drawnAlpha[i]) {
+                continue;
+            }
+
+            if (drawnSprite[i] != null) {
+                region.add(drawnX[i], drawnY[i], drawnSprite[i].getWidth(), drawnSprite[i].getHeight());
+            }
+            if (sprite != null) {
+                region.add(x, y, sprite.getWidth(), sprite.getHeight());
+            }
+            drawnSprite[i] = sprite;
+            drawnX[i] = x;
+            drawnY[i] = y;
+            drawnAlpha[i] = alpha;
+        }
+
+        boolean selected = firstGemSelectedCoord.x > -1 && firstGemSelectedCoord.y > -1;
+        boolean second = selected && secondGemSelectedCoord.x > -1 && secondGemSelectedCoord.y > -1;
+        selectorState[0] = curSelector;
+        selectorState[1] = selectorSprite[curSelector].angle;
+        selectorState[2] = Float.floatToIntBits(selectorAlpha);
+        selectorState[3] = selectorSpriteSize.x;
+        selectorState[4] = selectorSpriteSize.y;
+        selectorState[5] = selected ? firstGemSelectedCoord.x : -1;
+        selectorState[6] = selected ? firstGemSelectedCoord.y : -1;
+        selectorState[7] = second ? secondGemSelectedCoord.x : -1;
+        selectorState[8] = second ? secondGemSelectedCoord.y : -1;
+        selectorState[9] = selected ? 1 : 0;
+        if (!Arrays.equals(selectorState, drawnSelectorState)) {
+            damageSelector(region, drawnSelectorState);
+            damageSelector(region, selectorState);
+            System.arraycopy(selectorState, 0, drawnSelectorState, 0, SELECTOR_STATE);
+        }
+
+        overlayState[0] = Float.floatToIntBits(messageAlpha);
+        overlayState[1] = scoreBoard.anyPlayerWinner() ? 1 : 0;
+        overlayState[2] = restartBtn.disable ? 0 : (1 | (restartBtn.isPressed ? 2 : 0) | (restartBtn.isInside ? 4 : 0));
+        overlayState[3] = restartBtn.isInside ? restartBtn.animatedSprite.getFrame() : -1;
+        if (!Arrays.equals(overlayState, drawnOverlayState)) {
+            System.arraycopy(overlayState, 0, drawnOverlayState, 0, OVERLAY_STATE);
+            // The message, the winner and the restart button are all drawn over the board.
+            region.add(Grid.offset.x, Grid.offset.y, Grid.size.x, Grid.size.y);
+        }
+
+        scoreBoard.damage(region);
+    }
+
+    // Both the place of the selector while it is upright and while it turns.
+    private void damageSelector(DirtyRegion region, int[] state) {
+        if (state[9] == 0) {
+            return;
+        }
+        Vector2i size = selectorSprite[state[0]].size;
+        int w = state[3];
+        int h = state[4];
+        for (int i = 5; i <= 7; i += 2) {
+            if (state[i] < 0) {
+                continue;
+            }
+            int x = (Grid.offset.x - size.x / 2 + Grid.blockSize / 2) + state[i] * (Grid.blockSize + Grid.gap);
+            int y = (Grid.offset.y - size.y / 2 + Grid.blockSize / 2) + state[i + 1] * (Grid.blockSize + Grid.gap);
+            region.add(x, y, w, h);
+            region.add(x - (w - size.x) / 2, y - (h - size.y) / 2, w, h);
+        }
+    }
+
+    private Vector2i getCoordFromMousePos(MouseHandler e) {
         int x = (e.getX() - Grid.offset.x) / (Grid.blockSize + Grid.gap);
         int y = (e.getY() - Grid.offset.y) / (Grid.blockSize + Grid.gap);
 
@@ -549,23 +706,21 @@ public class Grid {
         return new Vector2i(x, y);
     }
 
-    private boolean isMouseHover(MouseEvent e) {
+    private boolean isMouseHover(MouseHandler e) {
         return (e.getX() >= Grid.offset.x && e.getX() < Grid.offset.x + numRows * (Grid.blockSize + Grid.gap)) &&
                 (e.getY() >= Grid.offset.y && e.getY() < Grid.offset.y + numColumns * (Grid.blockSize + Grid.gap));
     }
 
     public void mouseEvent(MouseHandler handler) {
-        MouseEvent e = handler.event;
-
         restartBtn.mouseEvent(handler);
 
-        if (!this.isMouseHover(e))
+        if (!this.isMouseHover(handler))
             return;
 
         if (this.isGemsFinishedAnim())
             return;
 
-        Vector2i gridCoords = this.getCoordFromMousePos(e);
+        Vector2i gridCoords = this.getCoordFromMousePos(handler);
 
         switch (handler.type) {
             case MOUSE_PRESSED:
@@ -576,7 +731,7 @@ public class Grid {
                         firstGemSelectedCoord.set(-1);
                     } else {
                         if (isAdjacent(firstGemSelectedCoord, gridCoords)) {
-                            boolean match = this.canSwap(firstGemSelectedCoord, gridCoords, false);
+                            boolean match = this.canSwap(firstGemSelectedCoord, gridCoords);
                             this.getGem(firstGemSelectedCoord).move(this.getGem(gridCoords));
                             this.getGem(gridCoords).move(this.getGem(firstGemSelectedCoord));
                             gemSwaps = new GemSwap(this.getGem(firstGemSelectedCoord), this.getGem(gridCoords));
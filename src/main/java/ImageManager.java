@@ -25,18 +25,147 @@
 import org.json.JSONObject;
 import java.io.IOException;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
 import java.nio.file.Paths;
 import java.util.*;
-import org.json.JSONArray;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
 import java.io.File;
+import java.lang.ref.SoftReference;
 import java.nio.file.Files;
 
 public class ImageManager {
-    private static final Map<String, List<BitmapData>> imageCache = new HashMap<>();
+    // Bitmaps are decoded on a few daemon threads, never more than there are cores.
+    private static final ExecutorService decoder = Executors.newFixedThreadPool(
+            Math.clamp(Runtime.getRuntime().availableProcessors(), 1, 4), runnable -> {
+                Thread thread = new Thread(runnable, "Asset decoder");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // Every group declared by the assets, loaded or not, and the group each image name belongs to.
+    private static final Map<String, AssetGroup> groups = new ConcurrentHashMap<>();
+    private static final Map<String, String> imageGroups = new ConcurrentHashMap<>();
+    // Frame ranges already handed out, shared by every animation that asks for the same range.
+    private static final Map<String, List<Sprite>> rangeCache = new ConcurrentHashMap<>();
+
+    // Loaded groups no scene holds, least recently used first: a lookup moves its group to the end.
+    // They are evicted once the loaded groups take more than -Dpuzzle.images.heap megabytes. The
+    // default is a little above the groups of the game screen, the larger one, so switching screens
+    // evicts most of the other screen.
+    private static final Object lock = new Object();
+    private static final LinkedHashMap<String, AssetGroup> unused = new LinkedHashMap<>(16, 0.75f, true);
+    private static final long heapBudget = Long.getLong("puzzle.images.heap", 5) << 20;
+    private static long residentBytes;
+
+    // Regions are copied into images in the display format, so Java2D can keep them in video memory,
+    // until the copies reach the budget. Past it, or with -Dpuzzle.images.compatible=false, regions
+    // stay views of their bitmap. The budget is in megabytes: -Dpuzzle.images.budget=<n>.
+    private static final boolean compatibleImages = !"false".equals(System.getProperty("puzzle.images.compatible"));
+    private static final long compatibleBudget = Long.getLong("puzzle.images.budget", 96) << 20;
+    private static final AtomicLong compatibleBytes = new AtomicLong();
+
+    // Loads the pack compiled from the assets file when it is up to date, the assets file otherwise,
+    // and waits for the groups flagged with _precache. The other groups are loaded on first use.
+    public static void loadAssets(String file) throws IOException {
+        loadAssetsAsync(file).join();
+    }
+
+    // Same as loadAssets, but returns right after reading the table while the groups load in the
+    // background. Asking for a group that is still loading waits for that group only.
+    public static CompletableFuture<Void> loadAssetsAsync(String file) throws IOException {
+        register(readAssets(file));
+        return loadPrecached();
+    }
+
+    private static List<AssetGroup> readAssets(String file) throws IOException {
+        File json = resolveAssets(new File(file.replace('\\', File.separatorChar)));
+        File pack = getPackFile(json);
+        if (isCurrent(pack, json)) {
+            try {
+                return AssetPack.open(pack).getGroups();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return readGroups(new JSONObject(Files.readString(json.toPath())).getJSONObject("Assets"));
+    }
+
+    // Groups are submitted in the order of the assets file, so the first ones are ready first.
+    private static CompletableFuture<Void> loadPrecached() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (AssetGroup group : groups.values()) {
+            if (group.precache) {
+                futures.add(load(group));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    // Fraction of the groups being loaded that are ready, 1 when nothing is loading.
+    public static float getLoadProgress() {
+        int total = 0;
+        int done = 0;
+        synchronized (lock) {
+            for (AssetGroup group : groups.values()) {
+                if (group.load != null) {
+                    total++;
+                    if (group.load.isDone()) {
+                        done++;
+                    }
+                }
+            }
+        }
+        return total == 0 ? 1f : (float) done / total;
+    }
+
+    public static File getPackFile(File json) {
+        String name = json.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(json.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + ".pack");
+    }
+
+    public static File getAtlasFile(File json) {
+        return new File(new File(json.getParentFile(), "atlas"), json.getName());
+    }
+
+    // The assets rewritten by AtlasPacker when they are up to date, the assets file otherwise.
+    public static File resolveAssets(File json) {
+        File atlas = getAtlasFile(json);
+        return isCurrent(atlas, json) ? atlas : json;
+    }
+
+    // A compiled file is stale once the assets file or any image it was built from is newer.
+    private static boolean isCurrent(File compiled, File json) {
+        if (!compiled.isFile() || compiled.lastModified() < json.lastModified()) {
+            return false;
+        }
+        try {
+            JSONObject assets = new JSONObject(Files.readString(json.toPath())).getJSONObject("Assets");
+            for (AssetGroup group : readGroups(assets)) {
+                if (group.getFile().lastModified() > compiled.lastModified()) {
+                    return false;
+                }
+            }
+        } catch (Exception e) {
+            return false;
+        }
+        return true;
+    }
+
+    // Only the table is read here, the pixels of a group are copied out the first time it is used.
+    public static void loadPack(File file) throws IOException {
+        register(AssetPack.open(file).getGroups());
+    }
 
     public static void parseJsonFromFile(String file) throws IOException {
-        String content = new String(Files.readAllBytes(Paths.get(file)));
+        String content = new String(Files.readAllBytes(Paths.get(file.replace('\\', File.separatorChar))));
         parseJson(content);
     }
 
@@ -44,102 +173,340 @@ public class ImageManager {
         JSONObject jsonObj = new JSONObject(content);
         JSONObject assets = jsonObj.getJSONObject("Assets");
 
-        List<BitmapData> data = processBitmaps(assets);
-        processBitmapImages(assets, data);
+        register(readGroups(assets));
+        loadPrecached().join();
     }
 
-    private static List<BitmapData> processBitmaps(JSONObject assets) throws IOException {
-        List<BitmapData> bitmapDataList = new ArrayList<>();
-        JSONArray bitmapArray = assets.getJSONArray("Bitmap");
-        for (Object item : bitmapArray) {
+    // Reads the bitmaps and their regions, keeping the order of the file. A region is in the group
+    // named by its bitmap, or by its _group attribute when an atlas put several groups on one bitmap.
+    static List<AssetGroup> readGroups(JSONObject assets) {
+        Map<String, JSONObject> bitmaps = new HashMap<>();
+        Map<String, AssetGroup> byName = new LinkedHashMap<>();
+        for (Object item : assets.getJSONArray("Bitmap")) {
             JSONObject bitmap = (JSONObject) item;
-            String imagePath = bitmap.getString("__text");
-            String imageGroup = bitmap.getString("_tag");
+            String tag = bitmap.getString("_tag");
+            if (bitmaps.putIfAbsent(tag, bitmap) == null) {
+                byName.put(tag, newGroup(tag, bitmap, bitmap));
+            }
+        }
+
+        Set<String> pages = new HashSet<>();
+        for (Object item : assets.getJSONArray("BitmapImage")) {
+            JSONObject bitmapImage = (JSONObject) item;
+            String tag = bitmapImage.getString("_bitmap");
+            JSONObject bitmap = bitmaps.get(tag);
+            if (bitmap == null) {
+                continue;
+            }
+
+            String name = bitmapImage.optString("_group", tag);
+            if (!name.equals(tag)) {
+                pages.add(tag);
+            }
+            AssetGroup group = byName.computeIfAbsent(name, key -> newGroup(key, bitmap, bitmapImage));
+            if (!group.path.equals(bitmap.getString("__text"))) {
+                System.out.println("Error: group " + name + " spans more than one bitmap, skipping " + bitmapImage.getString("_tag"));
+                continue;
+            }
+            group.regions.add(new AssetGroup.Region(bitmapImage.getString("_tag"),
+                    bitmapImage.getInt("_x"), bitmapImage.getInt("_y"),
+                    bitmapImage.getInt("_width"), bitmapImage.getInt("_height")));
+        }
+
+        // Atlas pages are only containers, their regions belong to the logical groups.
+        List<AssetGroup> groupList = new ArrayList<>();
+        for (AssetGroup group : byName.values()) {
+            if (!pages.contains(group.name) || !group.regions.isEmpty()) {
+                groupList.add(group);
+            }
+        }
+        return groupList;
+    }
+
+    // A region of an atlas carries the _precache flag of its group, a page is shared by several groups.
+    private static AssetGroup newGroup(String name, JSONObject bitmap, JSONObject entry) {
+        String precache = entry.optString("_precache", bitmap.optString("_precache"));
+        return new AssetGroup(name, bitmap.getString("__text"), "1".equals(precache));
+    }
+
+    private static void register(List<AssetGroup> groupList) {
+        synchronized (lock) {
+            groups.clear();
+            imageGroups.clear();
+            rangeCache.clear();
+            unused.clear();
+            residentBytes = 0;
+            compatibleBytes.set(0);
+
+            for (AssetGroup group : groupList) {
+                if (groups.putIfAbsent(group.name, group) != null) {
+                    continue;
+                }
+                for (AssetGroup.Region region : group.regions) {
+                    Sprite sprite = new Sprite(null, region.x, region.y, region.w, region.h);
+                    sprite.group = group;
+                    // The first region with a name wins, as it did when the lists were scanned.
+                    if (group.sprites.putIfAbsent(region.name, sprite) == null) {
+                        group.frames.put(region.name, group.bitmaps.size());
+                    }
+                    group.bitmaps.add(new BitmapData(region.name, sprite));
+                    imageGroups.putIfAbsent(region.name, group.name);
+                }
+            }
+        }
+    }
+
+    private static CompletableFuture<Void> load(AssetGroup group) {
+        synchronized (lock) {
+            if (group.load == null) {
+                // Retained when queued, so the groups of an atlas page queued together decode it once.
+                group.retain();
+                group.load = CompletableFuture.runAsync(() -> {
+                    try {
+                        fill(group);
+                    } finally {
+                        group.release();
+                    }
+                }, decoder);
+            }
+            return group.load;
+        }
+    }
+
+    // Makes sure a group has its pixels, waiting for it when it is being loaded in the background.
+    // Returns null for groups that do not exist or failed to load.
+    private static AssetGroup loadGroup(String name) {
+        AssetGroup group = groups.get(name);
+        if (group == null) {
+            return null;
+        }
+        synchronized (lock) {
+            unused.get(name);
+        }
+        load(group).join();
+        return group.broken ? null : group;
+    }
+
+    // Called by a sprite that lost its pixels to an eviction while something still held it. The group
+    // is decoded in the background and the sprite is skipped until then, so drawing never waits for it.
+    static void restore(AssetGroup group) {
+        load(group);
+    }
+
+    // Decodes the bitmap of a group, or takes back the pixels of an earlier eviction, and hands
+    // every sprite its region.
+    private static void fill(AssetGroup group) {
+        BufferedImage[] images = group.evicted != null ? group.evicted.get() : null;
+        long converted = 0;
+        if (images == null) {
+            BufferedImage image;
             try {
-                BufferedImage image = ImageIO.read(new File(imagePath));
-                bitmapDataList.add(new BitmapData(imageGroup, new Sprite(image)));
+                image = group.decode();
             } catch (IOException e) {
                 e.printStackTrace();
+                // Do not try to decode a broken bitmap again on every lookup.
+                group.broken = true;
+                return;
             }
+
+            images = new BufferedImage[group.bitmaps.size()];
+            for (int i = 0; i < images.length; i++) {
+                AssetGroup.Region region = group.regions.get(i);
+                BufferedImage subImage = image.getSubimage(region.x, region.y, region.w, region.h);
+                images[i] = toCompatible(subImage);
+                if (images[i] != subImage) {
+                    converted += 4L * region.w * region.h;
+                }
+            }
+        } else {
+            converted = group.compatibleBytes;
+            compatibleBytes.addAndGet(converted);
+        }
+
+        long bytes = 0;
+        for (BufferedImage image : images) {
+            bytes += 4L * image.getWidth() * image.getHeight();
+        }
+
+        synchronized (lock) {
+            for (int i = 0; i < images.length; i++) {
+                group.bitmaps.get(i).sprite.image = images[i];
+            }
+            group.evicted = null;
+            group.bytes = bytes;
+            group.compatibleBytes = converted;
+            residentBytes += bytes;
+            if (group.references == 0) {
+                unused.put(group.name, group);
+            }
+            trim();
         }
-        return bitmapDataList;
     }
 
-    private static void processBitmapImages(JSONObject assets, List<BitmapData> bitmapDataList) {
-        for (BitmapData data : bitmapDataList) {
-            List<BitmapData> bitmapList = new ArrayList<>();
-            JSONArray bitmapImageArray = assets.getJSONArray("BitmapImage");
-            for (Object item : bitmapImageArray) {
-                JSONObject bitmapImage = (JSONObject) item;
-                String thisGroup = bitmapImage.getString("_bitmap");
+    // Evicts the least recently used groups nobody holds until the loaded groups fit the budget.
+    private static void trim() {
+        var iterator = unused.values().iterator();
+        while (residentBytes > heapBudget && iterator.hasNext()) {
+            AssetGroup group = iterator.next();
+            if (group.load == null || !group.load.isDone()) {
+                continue;
+            }
+            iterator.remove();
 
-                if (data.name.equals(thisGroup)) {
-                    String imageName = bitmapImage.getString("_tag");
-                    int x = bitmapImage.getInt("_x");
-                    int y = bitmapImage.getInt("_y");
-                    int w = bitmapImage.getInt("_width");
-                    int h = bitmapImage.getInt("_height");
-                    System.out.println("name:"+imageName+" x:"+x+" y:"+y+" w:"+w+" h:"+h);
-                    BufferedImage subImage = data.sprite.image.getSubimage(x, y, w, h);
-                    bitmapList.add(new BitmapData(imageName, new Sprite(subImage, x, y, w, h)));
-                }
+            BufferedImage[] images = new BufferedImage[group.bitmaps.size()];
+            for (int i = 0; i < images.length; i++) {
+                Sprite sprite = group.bitmaps.get(i).sprite;
+                images[i] = sprite.image;
+                sprite.image = null;
             }
-            imageCache.put(data.name, bitmapList);
+            group.evicted = new SoftReference<>(images);
+            group.load = null;
+            residentBytes -= group.bytes;
+            compatibleBytes.addAndGet(-group.compatibleBytes);
         }
     }
 
-    public static List<BitmapData> getBitmapDataList(String group) {
-        return imageCache.get(group);
+    // Marks the groups as used by a scene and starts loading the ones that are not loaded.
+    public static CompletableFuture<Void> acquire(String... names) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        synchronized (lock) {
+            for (String name : names) {
+                AssetGroup group = groups.get(name);
+                if (group != null) {
+                    group.references++;
+                    unused.remove(name);
+                    futures.add(load(group));
+                }
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
     }
 
-    public static Sprite getImage(String imageName) {
-        if (!imageName.isEmpty()) {
-            for (var entry : imageCache.entrySet()) {
-                for (var data : imageCache.get(entry.getKey())) {
-                    if (data.name.equals(imageName)) {
-                        return data.sprite;
-                    }
+    // A scene is done with the groups: once no scene holds a group it can be evicted.
+    public static void release(String... names) {
+        synchronized (lock) {
+            for (String name : names) {
+                AssetGroup group = groups.get(name);
+                if (group == null || group.references == 0) {
+                    continue;
+                }
+                group.references--;
+                if (group.references == 0 && group.load != null) {
+                    unused.put(name, group);
                 }
             }
+            trim();
         }
-        return null;
     }
 
-    public static List<Sprite> getSpritesInRange(String group, String firstImageName, String lastImageName) {
-        List<Sprite> imageList = new ArrayList<>();
-        boolean foundFirst = false;
+    public static long getResidentBytes() {
+        synchronized (lock) {
+            return residentBytes;
+        }
+    }
 
-        List<BitmapData> dataList = imageCache.get(group);
-        if (dataList != null) {
-            for (var data : dataList) {
-                System.out.println("found" + data.name);
-                if (foundFirst || data.name.equals(firstImageName)) {
+    // Copies a region into an image with the layout of the screen, or a packed int image when there is
+    // no screen, with the least transparency its pixels need.
+    private static BufferedImage toCompatible(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        if (!compatibleImages) {
+            return image;
+        }
+        // The bytes are reserved before copying, so decoder threads never overshoot the budget together.
+        // A region that does not fit gives its reservation back, only converted regions are counted.
+        long size = 4L * w * h;
+        if (compatibleBytes.addAndGet(size) > compatibleBudget) {
+            compatibleBytes.addAndGet(-size);
+            return image;
+        }
 
-                    imageList.add(data.sprite);
-                    foundFirst = true;
+        int transparency = getTransparency(image);
+        BufferedImage copy;
+        if (GraphicsEnvironment.isHeadless()) {
+            copy = new BufferedImage(w, h, transparency == Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+        } else {
+            copy = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration().createCompatibleImage(w, h, transparency);
+        }
+
+        Graphics2D g = copy.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
 
-                    if (data.name.equals(lastImageName)) {
-                        break; // We find the last sprite, break the loop.
+    // Images with an alpha channel are often opaque or only use fully transparent pixels,
+    // which blit faster as OPAQUE or BITMASK.
+    private static int getTransparency(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return Transparency.OPAQUE;
+        }
+
+        int transparency = Transparency.OPAQUE;
+        int[] row = new int[image.getWidth()];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, row.length, 1, row, 0, row.length);
+            for (int pixel : row) {
+                int alpha = pixel >>> 24;
+                if (alpha != 0xFF) {
+                    if (alpha != 0) {
+                        return Transparency.TRANSLUCENT;
                     }
+                    transparency = Transparency.BITMASK;
                 }
             }
         }
-        else {
+        return transparency;
+    }
+
+    public static List<BitmapData> getBitmapDataList(String group) {
+        AssetGroup assetGroup = loadGroup(group);
+        return assetGroup != null ? assetGroup.bitmaps : null;
+    }
+
+    public static Sprite getImage(String imageName) {
+        String group = imageGroups.get(imageName);
+        return group != null ? getImage(group, imageName) : null;
+    }
+
+    // Frames from the first image to the last one, both included, in the order of the assets file.
+    // The list is immutable and shared, so asking for the same range again costs a single lookup.
+    public static List<Sprite> getSpritesInRange(String group, String firstImageName, String lastImageName) {
+        AssetGroup assetGroup = loadGroup(group);
+        if (assetGroup == null) {
             System.out.println("Error: Group not found in Assets: " + group);
+            return List.of();
         }
 
+        String key = group + '/' + firstImageName + '/' + lastImageName;
+        List<Sprite> imageList = rangeCache.get(key);
+        if (imageList != null) {
+            return imageList;
+        }
+
+        List<BitmapData> dataList = assetGroup.bitmaps;
+        Integer first = assetGroup.frames.get(firstImageName);
+        Integer last = assetGroup.frames.get(lastImageName);
+        if (first == null) {
+            imageList = List.of();
+        } else {
+            // Without a last image after the first one the range runs to the end of the group.
+            int end = last == null || last < first ? dataList.size() - 1 : last;
+            List<Sprite> sprites = new ArrayList<>(end - first + 1);
+            for (int i = first; i <= end; i++) {
+                sprites.add(dataList.get(i).sprite);
+            }
+            imageList = Collections.unmodifiableList(sprites);
+        }
+        rangeCache.put(key, imageList);
         return imageList;
     }
 
     public static Sprite getImage(String group, String imageName) {
-        List<BitmapData> dataList = imageCache.get(group);
-        if (dataList != null) {
-            for (var data : imageCache.get(group)) {
-                if (data.name.equals(imageName)) {
-                    return data.sprite;
-                }
-            }
-        }
-        return null;
+        AssetGroup assetGroup = loadGroup(group);
+        return assetGroup != null ? assetGroup.sprites.get(imageName) : null;
     }
 }
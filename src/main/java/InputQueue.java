@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded single producer, single consumer ring of input events, stored as primitive records.
+// The AWT event thread is the only producer and the game thread the only consumer, so a slot is
+// handed over by publishing the write position alone, without locks or allocations.
+public class InputQueue {
+    public static final int MOUSE_PRESSED = 0;
+    public static final int MOUSE_RELEASED = 1;
+    public static final int MOUSE_DRAGGED = 2;
+    public static final int MOUSE_MOVED = 3;
+    public static final int KEY_PRESSED = 4;
+
+    private final int mask;
+    private final int[] type;
+    private final int[] x;
+    private final int[] y;
+    // The mouse button, or the key code of a key event.
+    private final int[] code;
+    private final long[] time;
+
+    // Next slot to write, only advanced by the producer.
+    private final AtomicLong tail = new AtomicLong();
+    // Next slot to read, only advanced by the consumer.
+    private final AtomicLong head = new AtomicLong();
+    // Events lost because the queue was full, counted by the producer and read by Metrics.
+    private final AtomicLong dropped = new AtomicLong();
+
+    InputQueue(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.type = new int[capacity];
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.code = new int[capacity];
+        this.time = new long[capacity];
+    }
+
+    // Called on the producer thread. The event is dropped when the game thread is too far behind.
+    public boolean offer(int type, int x, int y, int code, long time) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        int i = (int) t & mask;
+        this.type[i] = type;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.code[i] = code;
+        this.time[i] = time;
+        // The release store makes the record visible before the new tail.
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // Called on the consumer thread, hands every queued event to the handler and returns how many.
+    public int drain(InputHandler handler) {
+        long h = head.get();
+        long t = tail.get();
+        for (long n = h; n < t; n++) {
+            int i = (int) n & mask;
+            handler.onInput(type[i], x[i], y[i], code[i], time[i]);
+        }
+        // Only now can the producer reuse the slots.
+        head.lazySet(t);
+        return (int) (t - h);
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public interface InputHandler {
+        void onInput(int type, int x, int y, int code, long time);
+    }
+}
@@ -24,10 +24,9 @@
 
 import org.joml.Vector2i;
 import java.awt.*;
-import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
 import java.awt.geom.AffineTransform;
-import java.io.File;
+import java.awt.image.BufferedImage;
 
 public class Label extends Component {
     public Font font;
@@ -42,16 +41,14 @@ public class Label extends Component {
     public Color backgroundColor;
     public int backgroundWidth;
 
+    private TextCache.Entry cached;
+    // Only used to measure text before it is rasterized.
+    private static final Graphics2D measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
     Label(Vector2i position, String text, int size) {
         super(position);
 
-        try {
-            GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
-            this.font = Font.createFont(Font.PLAIN, new File("resources\\MorrisRoman-Black.ttf")).deriveFont((float) size);
-            ge.registerFont(font);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        this.font = FontRegistry.getFont(FontRegistry.MORRIS_ROMAN, size);
 
         this.text = text;
         this.position = position;
@@ -65,62 +62,126 @@ public class Label extends Component {
     }
 
     public void render(Graphics g) {
+        long start = Metrics.start();
         if (g instanceof Graphics2D) {
-            Graphics2D g2d = (Graphics2D) g.create();
+            TextCache.Entry entry = this.getEntry();
+            g.drawImage(entry.image, this.position.x + entry.x, this.position.y + entry.y, null);
+            this.fadeColors();
+        }
+        Metrics.stop(Metrics.LABEL_RENDER, start);
+    }
 
-            FontMetrics metrics = g.getFontMetrics(this.font);
-            int width = metrics.stringWidth(text);
-            int height = metrics.getHeight();
-            int ascent = metrics.getAscent();
+    public void render(SpriteBatch batch) {
+        long start = Metrics.start();
+        TextCache.Entry entry = this.getEntry();
+        BufferedImage image = entry.image;
+        batch.draw(image, this.position.x + entry.x, this.position.y + entry.y, image.getWidth(), image.getHeight(), 1f, 0);
+        this.fadeColors();
+        Metrics.stop(Metrics.LABEL_RENDER, start);
+    }
 
-            if(this.backgroundWidth > 0) {
-                g.setColor(this.backgroundColor);
-                g.fillRect(this.position.x - backgroundWidth / 2, this.position.y - backgroundWidth / 2 - ascent,
-                        width + backgroundWidth, height + backgroundWidth);
+    // Glyph outlines are only built when the label looks different from its last frame.
+    private TextCache.Entry getEntry() {
+        TextCache.Entry entry = this.cached;
+        if (entry == null || !entry.key.matches(this)) {
+            entry = TextCache.get(this);
+            if (entry == null) {
+                entry = this.rasterize();
             }
+            this.cached = entry;
+        }
+        return entry;
+    }
 
-            // Draw the drop shadow
-            if (this.shadowOffset > 0) {
-                g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) 178 / 255));
-                int alpha = Math.min(color.getAlpha(), 178);
-                this.shadowColor = new Color(outlineColor.getRed(), outlineColor.getRed(), outlineColor.getBlue(), alpha);
-                g2d.setColor(this.shadowColor);
+    // Draws background, shadow, outline and text in that order into an image, with the baseline at (0, 0).
+    private TextCache.Entry rasterize() {
+        FontMetrics metrics = measure.getFontMetrics(this.font);
+        int width = metrics.stringWidth(text);
+        int height = metrics.getHeight();
+        int ascent = metrics.getAscent();
+
+        GlyphVector glyphs = this.font.createGlyphVector(measure.getFontRenderContext(), this.text);
+        Shape shape = glyphs.getOutline();
+
+        Rectangle bounds = new Rectangle(0, -ascent, width, height);
+        Rectangle shapeBounds = shape.getBounds();
+        bounds.add(shapeBounds);
+        if (this.backgroundWidth > 0) {
+            bounds.add(new Rectangle(-backgroundWidth / 2, -backgroundWidth / 2 - ascent,
+                    width + backgroundWidth, height + backgroundWidth));
+        }
+        if (this.shadowOffset > 0) {
+            Rectangle shadow = new Rectangle(shapeBounds);
+            shadow.translate(this.shadowOffset, this.shadowOffset);
+            bounds.add(shadow);
+        }
+        if (this.outlineWidth > 0) {
+            Rectangle outline = new Rectangle(shapeBounds);
+            outline.grow(this.outlineWidth, this.outlineWidth);
+            bounds.add(outline);
+        }
+        // Room for antialiased edges.
+        bounds.grow(1, 1);
 
+        BufferedImage image = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = image.createGraphics();
+        g2d.translate(-bounds.x, -bounds.y);
 
-                AffineTransform orig = g2d.getTransform();
-                g2d.translate(this.shadowOffset, this.shadowOffset);
+        if (this.backgroundWidth > 0) {
+            g2d.setColor(this.backgroundColor);
+            g2d.fillRect(-backgroundWidth / 2, -backgroundWidth / 2 - ascent, width + backgroundWidth, height + backgroundWidth);
+        }
 
-                // Create a GlyphVector for the shadow
-                FontRenderContext frcShadow = g2d.getFontRenderContext();
-                GlyphVector gvShadow = font.createGlyphVector(frcShadow, this.text);
-                Shape shadowShape = gvShadow.getOutline(this.position.x, this.position.y);
-                g2d.fill(shadowShape);
+        // Draw the drop shadow
+        if (this.shadowOffset > 0) {
+            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) 178 / 255));
+            int alpha = Math.min(color.getAlpha(), 178);
+            g2d.setColor(new Color(outlineColor.getRed(), outlineColor.getRed(), outlineColor.getBlue(), alpha));
 
-                // Restores the original transformation and color settings.
-                g2d.setTransform(orig);
-                g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER));
-            }
+            AffineTransform orig = g2d.getTransform();
+            g2d.translate(this.shadowOffset, this.shadowOffset);
+            g2d.fill(shape);
 
-            // Draw the outline
-            if (this.outlineWidth > 0) {
-                g2d.setStroke(new BasicStroke(outlineWidth));
-                g2d.setColor(outlineColor);
-                int alpha = Math.min(color.getAlpha(), outlineColor.getAlpha());
-                this.outlineColor = new Color(outlineColor.getRed(), outlineColor.getRed(), outlineColor.getBlue(), alpha);
+            // Restores the original transformation and color settings.
+            g2d.setTransform(orig);
+            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER));
+        }
+
+        // Draw the outline
+        if (this.outlineWidth > 0) {
+            g2d.setStroke(new BasicStroke(outlineWidth));
+            g2d.setColor(outlineColor);
+            g2d.draw(shape);
+        }
+
+        g2d.setColor(this.color);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setFont(this.font);
+        g2d.drawString(this.text, 0, 0);
+        g2d.dispose();
 
-                // Creates a GlyphVector for the outline.
-                FontRenderContext frcOutline = g2d.getFontRenderContext();
-                GlyphVector gvOutline = font.createGlyphVector(frcOutline, text);
-                Shape outlineShape = gvOutline.getOutline(position.x, position.y);
+        return TextCache.put(this, image, bounds.x, bounds.y);
+    }
 
-                g2d.draw(outlineShape);
+    // The shadow and outline colors follow the alpha of the text color after every render, a new
+    // Color is only made when the value actually changes.
+    private void fadeColors() {
+        if (this.shadowOffset > 0) {
+            int alpha = Math.min(color.getAlpha(), 178);
+            if (!isColor(this.shadowColor, outlineColor.getRed(), outlineColor.getRed(), outlineColor.getBlue(), alpha)) {
+                this.shadowColor = new Color(outlineColor.getRed(), outlineColor.getRed(), outlineColor.getBlue(), alpha);
             }
+        }
 
-            g2d.setColor(this.color);
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-            g2d.setFont(this.font);
-            g2d.drawString(this.text, this.position.x, this.position.y);
-            g2d.dispose();
+        if (this.outlineWidth > 0) {
+            int alpha = Math.min(color.getAlpha(), outlineColor.getAlpha());
+            if (!isColor(this.outlineColor, outlineColor.getRed(), outlineColor.getRed(), outlineColor.getBlue(), alpha)) {
+                this.outlineColor = new Color(outlineColor.getRed(), outlineColor.getRed(), outlineColor.getBlue(), alpha);
+            }
         }
     }
+
+    private static boolean isColor(Color color, int r, int g, int b, int a) {
+        return color.getRed() == r && color.getGreen() == g && color.getBlue() == b && color.getAlpha() == a;
+    }
 }
@@ -0,0 +1,352 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Saves in a fixed layout file mapped in memory: a header with the selected save, then a table of
+// SLOTS slots, each one a pair of fixed size records. A slot is written to the record it is not
+// reading from, with the next sequence number, so a write cut in half leaves the previous save
+// in place: on open, the record with a valid checksum and the highest sequence wins.
+//
+// Header:  int magic, int version, int slots, int record size, selected name, int crc
+// Record:  long sequence, boolean used, name, int current player, long random state,
+//          boolean has board, 64 board cells, per player (int health, int max health,
+//          boolean next turn, int per gem type), int crc
+// Names are a length byte followed by NAME_BYTES bytes of UTF-8. Everything is big endian.
+public class MappedSaveStore implements SaveStore {
+    private static final int MAGIC = 0x50515356; // "PQSV"
+    private static final int VERSION = 1;
+    public static final int SLOTS = 32;
+    private static final int NAME_BYTES = 31;
+
+    private static final int GEMS = GemType.values().length;
+    private static final int HEADER = 4 * 4 + 1 + NAME_BYTES + 4;
+    private static final int PLAYER = 4 + 4 + 1 + 4 * GEMS;
+    private static final int RECORD = 8 + 1 + 1 + NAME_BYTES + 4 + 8 + 1 + SaveData.CELLS + SaveData.PLAYERS * PLAYER + 4;
+
+    private final File file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    // The slot of every save, and for each slot the record read from and its sequence.
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final String[] names = new String[SLOTS];
+    private final int[] current = new int[SLOTS];
+    private final long[] sequence = new long[SLOTS];
+    private String selected;
+    private final CRC32 crc = new CRC32();
+    private final byte[] scratch = new byte[RECORD];
+
+    MappedSaveStore(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void create() {
+        try {
+            open();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private void open() throws IOException {
+        if (buffer != null) {
+            return;
+        }
+
+        long size = HEADER + (long) SLOTS * 2 * RECORD;
+        boolean exists = file.length() > 0;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (exists && channel.size() != size) {
+            channel.close();
+            channel = null;
+            throw new IOException(file + " is not a save file of this version");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        slots.clear();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            current[slot] = -1;
+            sequence[slot] = 0;
+            names[slot] = null;
+        }
+        if (!exists) {
+            writeHeader(null);
+            buffer.force();
+            return;
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != SLOTS || buffer.getInt(12) != RECORD) {
+            close();
+            throw new IOException(file + " is not a save file of this version");
+        }
+        String name = readName(16);
+        selected = checksum(0, HEADER - 4) == buffer.getInt(HEADER - 4) && !name.isEmpty() ? name : null;
+
+        for (int slot = 0; slot < SLOTS; slot++) {
+            for (int copy = 0; copy < 2; copy++) {
+                int offset = offset(slot, copy);
+                long recordSequence = buffer.getLong(offset);
+                if (recordSequence <= sequence[slot] || checksum(offset, RECORD - 4) != buffer.getInt(offset + RECORD - 4)) {
+                    continue;
+                }
+                current[slot] = copy;
+                sequence[slot] = recordSequence;
+            }
+            if (current[slot] >= 0 && buffer.get(offset(slot, current[slot]) + 8) != 0) {
+                names[slot] = readName(offset(slot, current[slot]) + 9);
+                slots.putIfAbsent(names[slot], slot);
+            }
+        }
+    }
+
+    private static int offset(int slot, int copy) {
+        return HEADER + (slot * 2 + copy) * RECORD;
+    }
+
+    private int checksum(int offset, int length) {
+        buffer.get(offset, scratch, 0, length);
+        crc.reset();
+        crc.update(scratch, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private String readName(int offset) {
+        int length = Math.min(buffer.get(offset) & 0xFF, NAME_BYTES);
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putName(ByteBuffer out, String name) throws IOException {
+        byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > NAME_BYTES) {
+            throw new IOException("Save name is too long: " + name);
+        }
+        out.put((byte) bytes.length);
+        out.put(bytes);
+        out.put(new byte[NAME_BYTES - bytes.length]);
+    }
+
+    private void writeHeader(String name) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).putInt(VERSION).putInt(SLOTS).putInt(RECORD);
+        putName(header, name);
+        crc.reset();
+        crc.update(header.array(), 0, HEADER - 4);
+        header.putInt((int) crc.getValue());
+        buffer.put(0, header.array());
+        selected = name;
+    }
+
+    // Writes the next record of the slot, then makes it the current one.
+    private void writeSlot(int slot, String name, SaveData data) throws IOException {
+        Arrays.fill(scratch, (byte) 0);
+        ByteBuffer record = ByteBuffer.wrap(scratch);
+        record.putLong(sequence[slot] + 1);
+        record.put((byte) (data != null ? 1 : 0));
+        putName(record, name);
+        if (data != null) {
+            record.putInt(data.currentPlayer);
+            record.putLong(data.randomState);
+            record.put((byte) (data.board != null ? 1 : 0));
+            record.put(data.board != null ? data.board : new byte[SaveData.CELLS]);
+            for (int player = 0; player < SaveData.PLAYERS; player++) {
+                record.putInt(data.health[player]);
+                record.putInt(data.maxHealth[player]);
+                record.put((byte) (data.nextTurn[player] ? 1 : 0));
+                for (int gem = 0; gem < GEMS; gem++) {
+                    record.putInt(data.gems[player][gem]);
+                }
+            }
+        }
+        record.position(RECORD - 4);
+        crc.reset();
+        crc.update(scratch, 0, RECORD - 4);
+        record.putInt((int) crc.getValue());
+
+        int copy = current[slot] == 0 ? 1 : 0;
+        buffer.put(offset(slot, copy), scratch);
+        current[slot] = copy;
+        sequence[slot]++;
+
+        if (names[slot] != null) {
+            slots.remove(names[slot]);
+        }
+        names[slot] = data != null ? name : null;
+        if (data != null) {
+            slots.put(name, slot);
+        }
+    }
+
+    private SaveData readSlot(int slot) {
+        int offset = offset(slot, current[slot]) + 8 + 1 + 1 + NAME_BYTES;
+        SaveData data = new SaveData();
+        data.currentPlayer = buffer.getInt(offset);
+        data.randomState = buffer.getLong(offset + 4);
+        boolean hasBoard = buffer.get(offset + 12) != 0;
+        offset += 13;
+        if (hasBoard) {
+            data.board = new byte[SaveData.CELLS];
+            buffer.get(offset, data.board);
+        }
+        offset += SaveData.CELLS;
+        for (int player = 0; player < SaveData.PLAYERS; player++) {
+            data.health[player] = buffer.getInt(offset);
+            data.maxHealth[player] = buffer.getInt(offset + 4);
+            data.nextTurn[player] = buffer.get(offset + 8) != 0;
+            offset += 9;
+            for (int gem = 0; gem < GEMS; gem++) {
+                data.gems[player][gem] = buffer.getInt(offset);
+                offset += 4;
+            }
+        }
+        return data;
+    }
+
+    // Each slot is written whole or not at all, the batch itself is not atomic. The pages are
+    // flushed to the disk once at the end.
+    @Override
+    public synchronized void transaction(Transaction body) throws IOException {
+        open();
+        try {
+            body.run();
+        } finally {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void insert(String saveName, SaveData saveData) throws IOException {
+        open();
+        Integer slot = slots.get(saveName);
+        if (slot == null) {
+            for (int i = 0; i < SLOTS && slot == null; i++) {
+                if (names[i] == null) {
+                    slot = i;
+                }
+            }
+            if (slot == null) {
+                throw new IOException("No free save slot for " + saveName);
+            }
+        }
+        writeSlot(slot, saveName, saveData);
+    }
+
+    @Override
+    public synchronized void update(String saveName, SaveData saveData) throws IOException {
+        open();
+        Integer slot = slots.get(saveName);
+        if (slot != null) {
+            writeSlot(slot, saveName, saveData);
+        }
+    }
+
+    @Override
+    public synchronized void delete(String saveName) throws IOException {
+        open();
+        Integer slot = slots.get(saveName);
+        if (slot != null) {
+            writeSlot(slot, saveName, null);
+        }
+    }
+
+    @Override
+    public synchronized SaveData getGems(String saveName) {
+        try {
+            open();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return null;
+        }
+        Integer slot = slots.get(saveName);
+        return slot != null ? readSlot(slot) : null;
+    }
+
+    // In slot order.
+    @Override
+    public synchronized List<String> getAllSavesName() {
+        List<String> list = new ArrayList<>();
+        try {
+            open();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return list;
+        }
+        for (String name : names) {
+            if (name != null) {
+                list.add(name);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public synchronized String getSelected() {
+        try {
+            open();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return null;
+        }
+        return selected;
+    }
+
+    @Override
+    public synchronized void setSelected(String saveName) throws IOException {
+        open();
+        writeHeader(saveName);
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        } finally {
+            buffer = null;
+            channel = null;
+        }
+    }
+}
@@ -25,7 +25,6 @@
 import org.joml.Vector2i;
 
 import java.awt.*;
-import java.awt.event.MouseEvent;
 import java.util.*;
 import java.util.List;
 import java.util.stream.IntStream;
@@ -89,7 +88,6 @@ public class Menu extends Component {
         if (this.disable && items.isEmpty())
             return;
 
-        MouseEvent e = handler.event;
         switch (handler.type) {
             case MOUSE_PRESSED:
                 if (!selectedItem.isEmpty()) {
@@ -97,7 +95,7 @@ public class Menu extends Component {
                 }
                 break;
             case MOUSE_RELEASED:
-                if (isPressed && contains(e.getPoint())) {
+                if (isPressed && contains(handler.getPoint())) {
                     onClick();
                 } else {
                     isInside = false;
@@ -107,9 +105,9 @@ public class Menu extends Component {
             case MOUSE_MOVED:
                 int yPos = position.y + 15;
                 for (var item : items.entrySet()) {
-                    this.isInsideBtn = contains(e.getPoint(), new Vector2i(position.x + size.x - this.sprites[REMOVE_ITEM].size.x - 6, yPos - 3), new Vector2i(28));
+                    this.isInsideBtn = contains(handler.getPoint(), new Vector2i(position.x + size.x - this.sprites[REMOVE_ITEM].size.x - 6, yPos - 3), new Vector2i(28));
 
-                    this.isInside = contains(e.getPoint(), new Vector2i(position.x, yPos), new Vector2i(size.x - 6, size.y));
+                    this.isInside = contains(handler.getPoint(), new Vector2i(position.x, yPos), new Vector2i(size.x - 6, size.y));
                     if (this.isInside) {
                         selectedItem = item.getKey();
                         break;
@@ -0,0 +1,305 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Frame timings of the game thread. Sections are summed during a frame and recorded once per frame,
+// so a section called many times per frame (Sprite.render) shows up as its total share of the frame.
+public class Metrics {
+    public static final int FRAME = 0;
+    public static final int UPDATE = 1;
+    public static final int RENDER = 2;
+    public static final int GRID_UPDATE = 3;
+    public static final int SCOREBOARD_RENDER = 4;
+    public static final int LABEL_RENDER = 5;
+    public static final int SPRITE_RENDER = 6;
+    public static final int ALLOCATED = 7;
+    private static final String[] NAMES = {
+            "frame", "update", "render", "Grid.update", "ScoreBoard.render", "Label.render", "Sprite.render", "allocated"
+    };
+
+    private static final long WINDOW = 1_000_000_000L;
+    private static final double MILLIS = 1e6;
+    private static final double KILOBYTES = 1024;
+
+    private static final Histogram[] total = new Histogram[NAMES.length];
+    private static final Histogram[] window = new Histogram[NAMES.length];
+    private static final long[] frameTime = new long[NAMES.length];
+
+    private static final com.sun.management.ThreadMXBean threadBean;
+    private static final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private static long lastFrame;
+    private static long lastAllocated;
+    private static long windowStart;
+    private static long windowGcCount;
+
+    // Presses handled by the game thread and not shown yet: when they were captured and handled.
+    private static final int MAX_PENDING = 64;
+    private static final int[] pendingType = new int[MAX_PENDING];
+    private static final long[] pendingCaptured = new long[MAX_PENDING];
+    private static final long[] pendingHandled = new long[MAX_PENDING];
+    private static int pendingCount;
+
+    // Time from the capture of a press to the show() of the first frame rendered after handling it.
+    private static final Histogram latencyTotal = new Histogram();
+    private static final Histogram latencyWindow = new Histogram();
+    private static final Histogram queuedWindow = new Histogram();
+
+    // The last SAMPLES presses for the CSV dump, as a ring.
+    private static final int SAMPLES = 1 << 16;
+    private static final int[] sampleType = new int[SAMPLES];
+    private static final long[] sampleQueued = new long[SAMPLES];
+    private static final long[] sampleLatency = new long[SAMPLES];
+    private static long sampleCount;
+
+    // The queue the presses come through, to show how many events it had to drop.
+    private static volatile InputQueue inputQueue;
+    private static long windowDropped;
+
+    private static volatile boolean overlay;
+    private static String[] overlayLines = new String[0];
+    private static final Font overlayFont = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color overlayBackground = new Color(0, 0, 0, 170);
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            total[i] = new Histogram();
+            window[i] = new Histogram();
+        }
+
+        com.sun.management.ThreadMXBean bean = null;
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            bean = sunBean;
+        }
+        threadBean = bean;
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    public static void stop(int section, long start) {
+        frameTime[section] += System.nanoTime() - start;
+    }
+
+    // Closes the frame on the game thread, recording every section measured since the last call.
+    public static void endFrame() {
+        long now = System.nanoTime();
+        long allocated = threadBean != null ? threadBean.getCurrentThreadAllocatedBytes() : 0;
+
+        if (lastFrame != 0) {
+            frameTime[FRAME] = now - lastFrame;
+            frameTime[ALLOCATED] = allocated - lastAllocated;
+            for (int i = 0; i < NAMES.length; i++) {
+                total[i].record(frameTime[i]);
+                window[i].record(frameTime[i]);
+            }
+        } else {
+            windowStart = now;
+            windowGcCount = getGcCount();
+            windowDropped = getDropped();
+        }
+        Arrays.fill(frameTime, 0L);
+        lastFrame = now;
+        lastAllocated = allocated;
+
+        if (now - windowStart >= WINDOW) {
+            closeWindow(now);
+        }
+    }
+
+    // Called on the game thread when a press is handled, with the time it was captured.
+    public static void inputHandled(int type, long captured) {
+        if (pendingCount == MAX_PENDING) {
+            return;
+        }
+        pendingType[pendingCount] = type;
+        pendingCaptured[pendingCount] = captured;
+        pendingHandled[pendingCount] = System.nanoTime();
+        pendingCount++;
+    }
+
+    // Called on the game thread right after show(), the presses handled before are now on screen.
+    public static void presented() {
+        if (pendingCount == 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < pendingCount; i++) {
+            long latency = now - pendingCaptured[i];
+            long queued = pendingHandled[i] - pendingCaptured[i];
+            latencyTotal.record(latency);
+            latencyWindow.record(latency);
+            queuedWindow.record(queued);
+
+            int sample = (int) (sampleCount++ & (SAMPLES - 1));
+            sampleType[sample] = pendingType[i];
+            sampleQueued[sample] = queued;
+            sampleLatency[sample] = latency;
+        }
+        pendingCount = 0;
+    }
+
+    public static void watch(InputQueue queue) {
+        inputQueue = queue;
+    }
+
+    private static long getDropped() {
+        InputQueue queue = inputQueue;
+        return queue != null ? queue.getDropped() : 0;
+    }
+
+    private static long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    // Builds the overlay text once per window, so the overlay itself does not allocate every frame.
+    private static void closeWindow(long now) {
+        double seconds = (now - windowStart) / 1e9;
+        long gcCount = getGcCount();
+        long dropped = getDropped();
+
+        String[] lines = new String[NAMES.length + 4];
+        Histogram frame = window[FRAME];
+        lines[0] = String.format("FPS %5.1f  GC %d (+%d)", frame.getCount() / seconds, gcCount, gcCount - windowGcCount);
+        for (int i = 0; i < ALLOCATED; i++) {
+            Histogram h = window[i];
+            lines[i + 1] = String.format("%-17s p50 %6.2f  p99 %6.2f  max %6.2f ms", NAMES[i],
+                    h.getValueAtPercentile(50) / MILLIS, h.getValueAtPercentile(99) / MILLIS, h.getMax() / MILLIS);
+        }
+        Histogram allocated = window[ALLOCATED];
+        lines[NAMES.length] = threadBean == null ? "allocated n/a" : String.format("%-17s %.1f KB/frame  %.2f MB/s",
+                NAMES[ALLOCATED], allocated.getMean() / KILOBYTES, allocated.getMean() * allocated.getCount() / seconds / (1 << 20));
+        lines[NAMES.length + 1] = String.format("%-17s p50 %6.2f  p99 %6.2f  max %6.2f ms", "input to display",
+                latencyWindow.getValueAtPercentile(50) / MILLIS, latencyWindow.getValueAtPercentile(99) / MILLIS, latencyWindow.getMax() / MILLIS);
+        lines[NAMES.length + 2] = String.format("%-17s p50 %6.2f  p99 %6.2f  max %6.2f ms  (%d)", "input queued",
+                queuedWindow.getValueAtPercentile(50) / MILLIS, queuedWindow.getValueAtPercentile(99) / MILLIS, queuedWindow.getMax() / MILLIS,
+                latencyWindow.getCount());
+        lines[NAMES.length + 3] = String.format("%-17s %d (+%d)", "input dropped", dropped, dropped - windowDropped);
+        overlayLines = lines;
+
+        for (Histogram h : window) {
+            h.reset();
+        }
+        latencyWindow.reset();
+        queuedWindow.reset();
+        windowStart = now;
+        windowGcCount = gcCount;
+        windowDropped = dropped;
+    }
+
+    public static void toggleOverlay() {
+        overlay = !overlay;
+    }
+
+    public static boolean isOverlayVisible() {
+        return overlay;
+    }
+
+    // Presses handled and not shown yet, a frame is shown for them even if nothing changed.
+    public static boolean hasPendingInput() {
+        return pendingCount > 0;
+    }
+
+    public static void render(Graphics g) {
+        if (!overlay) {
+            return;
+        }
+
+        String[] lines = overlayLines;
+        g.setFont(overlayFont);
+        FontMetrics metrics = g.getFontMetrics();
+        int height = metrics.getHeight();
+
+        g.setColor(overlayBackground);
+        g.fillRect(4, 4, 460, lines.length * height + 8);
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], 10, 8 + metrics.getAscent() + i * height);
+        }
+    }
+
+    // Writes the percentile distribution of every section, times in milliseconds and allocations in kilobytes.
+    public static void dump(File file) {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file))) {
+            out.printf("# GC count: %d%n", getGcCount());
+            out.printf("# input dropped: %d%n", getDropped());
+            for (int i = 0; i < NAMES.length; i++) {
+                out.println();
+                out.printf("# %s (%s)%n", NAMES[i], i == ALLOCATED ? "KB" : "ms");
+                total[i].outputPercentiles(out, i == ALLOCATED ? KILOBYTES : MILLIS);
+            }
+            out.println();
+            out.println("# input to display (ms)");
+            latencyTotal.outputPercentiles(out, MILLIS);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Writes the last presses, one per line: the kind of press, the time waiting in the input queue
+    // and the time until the frame was shown, both in milliseconds.
+    public static void dumpLatency(File file) {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file))) {
+            out.println("type,queued_ms,latency_ms");
+            for (long n = Math.max(0, sampleCount - SAMPLES); n < sampleCount; n++) {
+                int i = (int) (n & (SAMPLES - 1));
+                out.printf(Locale.ROOT, "%s,%.3f,%.3f%n", sampleType[i] == InputQueue.KEY_PRESSED ? "key" : "mouse",
+                        sampleQueued[i] / MILLIS, sampleLatency[i] / MILLIS);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Dumps to the file set with -Dpuzzle.metrics=<file> (metrics.txt by default) when the VM exits,
+    // and the presses to -Dpuzzle.latency=<file> (latency.csv by default) when there were any.
+    public static void dumpOnExit() {
+        File file = new File(System.getProperty("puzzle.metrics", "metrics.txt"));
+        File latencyFile = new File(System.getProperty("puzzle.latency", "latency.csv"));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            dump(file);
+            if (sampleCount > 0) {
+                dumpLatency(latencyFile);
+            }
+        }, "Metrics"));
+    }
+}
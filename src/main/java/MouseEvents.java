@@ -25,20 +25,31 @@
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
+// Runs on the AWT event thread and only records the events, the game thread handles them.
 public class MouseEvents extends MouseAdapter {
+    private final InputQueue queue;
+
+    MouseEvents(InputQueue queue) {
+        this.queue = queue;
+    }
+
+    private void offer(int type, MouseEvent e) {
+        queue.offer(type, e.getX(), e.getY(), e.getButton(), System.nanoTime());
+    }
+
     public void mousePressed(MouseEvent e) {
-        GameMenu.mouseEvent(new MouseHandler(e, MouseHandler.Type.MOUSE_PRESSED));
+        offer(InputQueue.MOUSE_PRESSED, e);
     }
 
     public void mouseReleased(MouseEvent e) {
-        GameMenu.mouseEvent(new MouseHandler(e, MouseHandler.Type.MOUSE_RELEASED));
+        offer(InputQueue.MOUSE_RELEASED, e);
     }
 
     public void mouseMoved(MouseEvent e) {
-        GameMenu.mouseEvent(new MouseHandler(e, MouseHandler.Type.MOUSE_MOVED));
+        offer(InputQueue.MOUSE_MOVED, e);
     }
 
     public void mouseDragged(MouseEvent e) {
-        GameMenu.mouseEvent(new MouseHandler(e, MouseHandler.Type.MOUSE_DRAGGED));
+        offer(InputQueue.MOUSE_DRAGGED, e);
     }
 }
@@ -22,10 +22,11 @@
  * SOFTWARE.
  */
 
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
+import java.awt.Point;
 
-public class MouseHandler extends MouseAdapter {
+// The mouse event being handled on the game thread. A single instance is refilled from the input
+// queue for every event, so handlers must not keep it or its point.
+public class MouseHandler {
 
     public enum Type {
         MOUSE_PRESSED,
@@ -34,11 +35,32 @@ public class MouseHandler extends MouseAdapter {
         MOUSE_MOVED
     }
 
-    public MouseEvent event;
+    private static final Type[] TYPES = Type.values();
+
     public Type type;
+    public int button;
+    // System.nanoTime() when the event was captured on the AWT event thread.
+    public long time;
+    private final Point point = new Point();
+
+    MouseHandler() {}
+
+    void set(int type, int x, int y, int button, long time) {
+        this.type = TYPES[type];
+        this.point.setLocation(x, y);
+        this.button = button;
+        this.time = time;
+    }
+
+    public Point getPoint() {
+        return point;
+    }
+
+    public int getX() {
+        return point.x;
+    }
 
-     MouseHandler(MouseEvent e, MouseHandler.Type type) {
-        this.event = e;
-        this.type = type;
+    public int getY() {
+        return point.y;
     }
 }
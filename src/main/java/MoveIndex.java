@@ -0,0 +1,199 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+public class MoveIndex {
+    // A move is packed as (cell << 1 | direction), where the gem at cell is swapped with the
+    // next one on the same row (ALONG_ROW) or on the next row (ALONG_COLUMN).
+    public static final int ALONG_ROW = 0;
+    public static final int ALONG_COLUMN = 1;
+    public static final int MAX_MOVES = 2 * BitBoard.SIZE * BitBoard.SIZE;
+
+    private static final long NOT_FIRST_TWO_COLUMNS = 0xFCFCFCFCFCFCFCFCL;
+    private static final long NOT_LAST_TWO_COLUMNS = 0x3F3F3F3F3F3F3F3FL;
+    private static final long INNER_COLUMNS = 0x7E7E7E7E7E7E7E7EL;
+    private static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL;
+
+    private final BitBoard board;
+    private final long rowPairs;
+    private final long columnPairs;
+
+    // Moves and existing runs contributed by each gem type, rebuilt only when its mask changes.
+    private final int[] seenVersions;
+    private final long[] rowMoves;
+    private final long[] columnMoves;
+    private final long[] runs;
+
+    private long rowMask;
+    private long columnMask;
+    private boolean hasRuns;
+
+    MoveIndex(BitBoard board, int numRows, int numColumns) {
+        this.board = board;
+
+        long rows = 0L;
+        long columns = 0L;
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numColumns; j++) {
+                if (j < numColumns - 1) {
+                    rows |= 1L << BitBoard.index(i, j);
+                }
+                if (i < numRows - 1) {
+                    columns |= 1L << BitBoard.index(i, j);
+                }
+            }
+        }
+        this.rowPairs = rows;
+        this.columnPairs = columns;
+
+        int types = GemType.values().length;
+        this.seenVersions = new int[types];
+        this.rowMoves = new long[types];
+        this.columnMoves = new long[types];
+        this.runs = new long[types];
+        for (int i = 0; i < types; i++) {
+            this.seenVersions[i] = board.getVersion(i) - 1;
+        }
+    }
+
+    public static int encode(int cell, int direction) {
+        return cell << 1 | direction;
+    }
+
+    public static int getCell(int move) {
+        return move >>> 1;
+    }
+
+    public static int getDirection(int move) {
+        return move & 1;
+    }
+
+    // The cell the gem at getCell(move) is swapped with.
+    public static int getTarget(int move) {
+        return getCell(move) + (getDirection(move) == ALONG_ROW ? 1 : BitBoard.SIZE);
+    }
+
+    // Rebuilds the moves of a single gem type.
+    // A gem completes a run on the cell it lands on only with gems that are not on the cell it left,
+    // so each direction of the swap checks its own set of neighbours.
+    private void rebuild(int type) {
+        long m = this.board.getMask(type);
+
+        long left = (m << 1) & (m << 2) & NOT_FIRST_TWO_COLUMNS;
+        long right = (m >>> 1) & (m >>> 2) & NOT_LAST_TWO_COLUMNS;
+        long middle = (m << 1) & (m >>> 1) & INNER_COLUMNS;
+        long up = (m << BitBoard.SIZE) & (m << 2 * BitBoard.SIZE);
+        long down = (m >>> BitBoard.SIZE) & (m >>> 2 * BitBoard.SIZE);
+        long center = (m << BitBoard.SIZE) & (m >>> BitBoard.SIZE);
+        long vertical = up | down | center;
+        long horizontal = left | right | middle;
+
+        // The gem on the right moves left and the gem on the left moves right.
+        long rows = ((left | vertical) & (m >>> 1)) | (((right | vertical) >>> 1) & m);
+        // The gem below moves up and the gem above moves down.
+        long columns = ((horizontal | up) & (m >>> BitBoard.SIZE)) | (((horizontal | down) >>> BitBoard.SIZE) & m);
+
+        this.rowMoves[type] = rows & NOT_LAST_COLUMN;
+        this.columnMoves[type] = columns;
+        this.runs[type] = BitBoard.rowRuns(m) | BitBoard.rowRuns(BitBoard.transpose(m));
+    }
+
+    private void refresh() {
+        boolean changed = false;
+        for (int i = 0; i < this.seenVersions.length; i++) {
+            int version = this.board.getVersion(i);
+            if (this.seenVersions[i] != version) {
+                this.seenVersions[i] = version;
+                this.rebuild(i);
+                changed = true;
+            }
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        long rows = 0L;
+        long columns = 0L;
+        long existing = 0L;
+        for (int i = 0; i < this.seenVersions.length; i++) {
+            rows |= this.rowMoves[i];
+            columns |= this.columnMoves[i];
+            existing |= this.runs[i];
+        }
+
+        this.hasRuns = existing != 0L;
+        this.rowMask = rows & this.rowPairs;
+        this.columnMask = columns & this.columnPairs;
+    }
+
+    // A board that still has a run to resolve is never out of moves.
+    public boolean hasMoves() {
+        this.refresh();
+        return this.hasRuns || (this.rowMask | this.columnMask) != 0L;
+    }
+
+    public int getMoveCount() {
+        this.refresh();
+        return Long.bitCount(this.rowMask) + Long.bitCount(this.columnMask);
+    }
+
+    public long getRowMoves() {
+        this.refresh();
+        return this.rowMask;
+    }
+
+    public long getColumnMoves() {
+        this.refresh();
+        return this.columnMask;
+    }
+
+    // Fills the array with the packed moves and returns how many were written.
+    public int getMoves(int[] moves) {
+        this.refresh();
+        int count = 0;
+        for (long mask = this.rowMask; mask != 0L; mask &= mask - 1) {
+            moves[count++] = encode(Long.numberOfTrailingZeros(mask), ALONG_ROW);
+        }
+        for (long mask = this.columnMask; mask != 0L; mask &= mask - 1) {
+            moves[count++] = encode(Long.numberOfTrailingZeros(mask), ALONG_COLUMN);
+        }
+        return count;
+    }
+
+    // Checks if swapping two adjacent gems creates a new match.
+    public boolean isLegal(int rowA, int columnA, int rowB, int columnB) {
+        this.refresh();
+        int cellA = BitBoard.index(rowA, columnA);
+        int cellB = BitBoard.index(rowB, columnB);
+        int cell = Math.min(cellA, cellB);
+
+        if (Math.abs(cellA - cellB) == 1 && rowA == rowB) {
+            return (this.rowMask >>> cell & 1L) != 0;
+        }
+        if (Math.abs(cellA - cellB) == BitBoard.SIZE) {
+            return (this.columnMask >>> cell & 1L) != 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Renders the scripted battle without a window, to keep PNGs of its frames, to compare them with
+// frames kept before, or to measure how fast frames are drawn.
+// Usage: OffscreenRenderer render <dir> [width height]
+//        OffscreenRenderer compare <golden dir> <dir> [width height]
+//        OffscreenRenderer bench [width height]
+public class OffscreenRenderer {
+    // A frame is kept every CAPTURE_STEPS steps of the battle.
+    private static final int CAPTURE_STEPS = 30;
+    // A pixel differs when one of its channels is further than this from the golden frame.
+    private static final int TOLERANCE = 2;
+    private static final long BENCH_WARMUP = TimeUnit.SECONDS.toNanos(2);
+    private static final long BENCH_TIME = TimeUnit.SECONDS.toNanos(5);
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "";
+        int sizeAt = switch (mode) {
+            case "render" -> 2;
+            case "compare" -> 3;
+            case "bench" -> 1;
+            default -> -1;
+        };
+        if (sizeAt < 0 || (args.length != sizeAt && args.length != sizeAt + 2)) {
+            System.out.println("Usage: OffscreenRenderer render <dir> [width height]");
+            System.out.println("       OffscreenRenderer compare <golden dir> <dir> [width height]");
+            System.out.println("       OffscreenRenderer bench [width height]");
+            System.exit(1);
+        }
+        int width = args.length > sizeAt ? Integer.parseInt(args[sizeAt]) : RenderTarget.WIDTH;
+        int height = args.length > sizeAt ? Integer.parseInt(args[sizeAt + 1]) : RenderTarget.HEIGHT;
+
+        OffscreenTarget target = new OffscreenTarget(width, height);
+        ScriptedBattle battle = new ScriptedBattle();
+        int status = switch (mode) {
+            case "render" -> render(battle, target, new File(args[1]));
+            case "compare" -> compare(battle, target, new File(args[1]), new File(args[2]));
+            default -> bench(battle, target);
+        };
+        System.exit(status);
+    }
+
+    private static File frameFile(File dir, int step, String suffix) {
+        return new File(dir, String.format("frame_%03d%s.png", step, suffix));
+    }
+
+    private static int render(ScriptedBattle battle, OffscreenTarget target, File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Can't create " + dir);
+        }
+
+        int frames = 0;
+        while (battle.getStep() <= ScriptedBattle.STEPS) {
+            if (battle.getStep() % CAPTURE_STEPS == 0) {
+                battle.render(target);
+                target.writePng(frameFile(dir, battle.getStep(), ""));
+                frames++;
+            }
+            battle.advance();
+        }
+        System.out.printf("wrote %d frames of %dx%d to %s%n", frames, target.getWidth(), target.getHeight(), dir);
+        return 0;
+    }
+
+    // Renders the frames into dir, then checks them against the ones in golden. Every frame that
+    // differs gets an image next to it with the differing pixels in red over the golden frame.
+    static int compare(ScriptedBattle battle, OffscreenTarget target, File golden, File dir) throws IOException {
+        render(battle, target, dir);
+
+        int failed = 0;
+        for (int step = 0; step <= ScriptedBattle.STEPS; step += CAPTURE_STEPS) {
+            File goldenFile = frameFile(golden, step, "");
+            if (!goldenFile.isFile()) {
+                System.out.println("missing golden frame " + goldenFile);
+                failed++;
+                continue;
+            }
+
+            BufferedImage expected = ImageIO.read(goldenFile);
+            BufferedImage actual = ImageIO.read(frameFile(dir, step, ""));
+            if (expected.getWidth() != actual.getWidth() || expected.getHeight() != actual.getHeight()) {
+                System.out.printf("frame %d: size %dx%d, golden is %dx%d%n", step, actual.getWidth(), actual.getHeight(),
+                        expected.getWidth(), expected.getHeight());
+                failed++;
+                continue;
+            }
+
+            BufferedImage diff = new BufferedImage(actual.getWidth(), actual.getHeight(), BufferedImage.TYPE_INT_RGB);
+            int differing = 0;
+            for (int y = 0; y < actual.getHeight(); y++) {
+                for (int x = 0; x < actual.getWidth(); x++) {
+                    int a = actual.getRGB(x, y);
+                    int e = expected.getRGB(x, y);
+                    if (differs(a, e)) {
+                        diff.setRGB(x, y, 0xFF0000);
+                        differing++;
+                    } else {
+                        // The golden frame, darkened so the red stands out.
+                        diff.setRGB(x, y, (e >>> 2) & 0x3F3F3F);
+                    }
+                }
+            }
+
+            // A diff image left by an earlier run would point at a frame that matches now.
+            File diffFile = frameFile(dir, step, "_diff");
+            diffFile.delete();
+            if (differing > 0) {
+                ImageIO.write(diff, "png", diffFile);
+                System.out.printf("frame %d: %d pixels differ%n", step, differing);
+                failed++;
+            }
+        }
+
+        System.out.println(failed == 0 ? "all frames match" : failed + " frames differ");
+        return failed == 0 ? 0 : 1;
+    }
+
+    private static boolean differs(int a, int b) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            if (Math.abs((a >>> shift & 0xFF) - (b >>> shift & 0xFF)) > TOLERANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Draws a frame per step of the battle, starting it over when it ends, and reports the time per frame.
+    private static int bench(ScriptedBattle battle, OffscreenTarget target) {
+        Histogram frames = new Histogram();
+        long start = System.nanoTime();
+        long measureStart = start + BENCH_WARMUP;
+        long end = measureStart + BENCH_TIME;
+        long now = start;
+        while (now < end) {
+            if (battle.getStep() == ScriptedBattle.STEPS) {
+                battle.restart();
+            }
+            battle.advance();
+            battle.render(target);
+
+            long last = now;
+            now = System.nanoTime();
+            if (last >= measureStart) {
+                frames.record(now - last);
+            }
+        }
+
+        double seconds = BENCH_TIME / 1e9;
+        System.out.printf("%dx%d: %.1f frames/s, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", target.getWidth(), target.getHeight(),
+                frames.getCount() / seconds, frames.getValueAtPercentile(50) / 1e6, frames.getValueAtPercentile(99) / 1e6, frames.getMax() / 1e6);
+        return 0;
+    }
+}
@@ -22,36 +22,36 @@
  * SOFTWARE.
  */
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 class PlayerScore {
-    public Map<GemType, Integer> gemCount = new HashMap<>();
+    private final int[] gemCount = new int[GemType.values().length];
     int health;
     int maxHealth;
     boolean nextTurn;
 
     PlayerScore() {
-        gemCount = new HashMap<>();
         this.restart();
     }
 
     public void restart(){
-        for (GemType gem : GemType.values()) {
-            gemCount.put(gem, 0);
-        }
+        Arrays.fill(gemCount, 0);
         health = maxHealth = 50;
     }
 
     public void clearGem(GemType gem) {
-        gemCount.put(gem, 0);
+        gemCount[gem.ordinal()] = 0;
     }
 
     public void addGem(GemType gem, int count) {
-        gemCount.put(gem, gemCount.get(gem) + count);
+        gemCount[gem.ordinal()] += count;
+    }
+
+    public void setGemCount(GemType gem, int count) {
+        gemCount[gem.ordinal()] = count;
     }
 
     public int getGemCount(GemType gem) {
-        return gemCount.get(gem);
+        return gemCount[gem.ordinal()];
     }
 }
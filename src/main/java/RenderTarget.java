@@ -22,16 +22,23 @@
  * SOFTWARE.
  */
 
-public class GemAnimation {
-    public double time;
-    public double total;
+import java.awt.Graphics2D;
 
-    GemAnimation() {
-        this(0, 0);
-    }
+// Where the frames are drawn: the window through its buffer strategy, or an image in memory.
+// Frames are always drawn in a WIDTH x HEIGHT space, a target of another size scales them.
+public interface RenderTarget {
+    int WIDTH = 1024;
+    int HEIGHT = 768;
 
-    GemAnimation(double time, double total) {
-        this.time = time;
-        this.total = total;
-    }
+    int getWidth();
+
+    int getHeight();
+
+    // Starts a frame and returns the graphics to draw it with.
+    Graphics2D begin();
+
+    // Shows the frame, returns false when it was lost and has to be drawn again.
+    boolean end();
+
+    void dispose();
 }
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.*;
+import java.awt.image.VolatileImage;
+
+// The last frame drawn, kept from one frame to the next so only the regions that changed are drawn
+// again, clipped to each of them. When nothing changed there is nothing to draw or show at all.
+// Set -Dpuzzle.dirty=false to draw the whole frame every time.
+public class RetainedFrame {
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("puzzle.dirty", "true"));
+    // Past this share of the screen, a single pass over the whole frame costs less than one per region.
+    private static final double FULL_COVERAGE = 0.6;
+
+    private final int width;
+    private final int height;
+    private final DirtyRegion region;
+    private final Rectangle rect = new Rectangle();
+    private VolatileImage image;
+
+    RetainedFrame(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.region = new DirtyRegion(width, height);
+    }
+
+    // Draws what changed into the frame, returns false when nothing did.
+    public boolean update(GraphicsConfiguration gc) {
+        int status = image != null ? image.validate(gc) : VolatileImage.IMAGE_INCOMPATIBLE;
+        if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+            image = gc.createCompatibleVolatileImage(width, height);
+        }
+
+        GameMenu.damage(region);
+        if (status != VolatileImage.IMAGE_OK || !ENABLED || region.getCoverage() > FULL_COVERAGE) {
+            region.addAll();
+        }
+        if (region.isEmpty()) {
+            return false;
+        }
+
+        Graphics2D g = image.createGraphics();
+        for (int i = 0; i < region.getCount(); i++) {
+            g.setClip(region.get(i, rect));
+            GameMenu.render(g);
+        }
+        g.dispose();
+
+        region.clear();
+        if (image.contentsLost()) {
+            region.addAll();
+        }
+        return true;
+    }
+
+    public void present(Graphics g) {
+        g.drawImage(image, 0, 0, null);
+    }
+}
@@ -22,12 +22,32 @@
  * SOFTWARE.
  */
 
-public class GemDrop {
-    int x, y, shift;
+// Small seedable random generator (SplitMix64) whose whole state is a single long,
+// so games can be replayed from a seed or restored from a save.
+public class Rng {
+    private long state;
 
-    GemDrop(int x, int y, int shift) {
-        this.x = x;
-        this.y = y;
-        this.shift = shift;
+    Rng(long seed) {
+        this.state = seed;
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    public long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Returns a number from min (inclusive) to max (exclusive), like MathUtils.randInt.
+    public int nextInt(int min, int max) {
+        return min + (int) (((nextLong() >>> 32) * (max - min)) >>> 32);
     }
 }
@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+// Copies every save and the selected one from a store to another, a .db file being SQLite and
+// anything else a mapped save file. Saves already in the target with the same name are replaced.
+// Usage: SaveConverter <from> <to>, like SaveConverter puzzle.db puzzle.sav
+public class SaveConverter {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: SaveConverter <from> <to>");
+            System.exit(1);
+        }
+
+        File from = new File(args[0]);
+        if (!from.isFile()) {
+            throw new IOException("No save file at " + from);
+        }
+
+        try (SaveStore source = SaveStore.open(from);
+             SaveStore target = SaveStore.open(new File(args[1]))) {
+            source.create();
+            target.create();
+
+            List<String> names = source.getAllSavesName();
+            target.transaction(() -> {
+                for (String name : names) {
+                    SaveData saveData = source.getGems(name);
+                    if (saveData != null) {
+                        target.insert(name, saveData);
+                    }
+                }
+            });
+
+            String selected = source.getSelected();
+            if (selected != null) {
+                target.setSelected(selected);
+            }
+            System.out.printf("copied %d saves from %s to %s%n", names.size(), args[0], args[1]);
+        }
+    }
+}
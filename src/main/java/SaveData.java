@@ -22,15 +22,24 @@
  * SOFTWARE.
  */
 
-import java.util.Map;
-
+// Everything needed to resume a game: the score of each player, whose turn it is, the board
+// and the state of the random generator that fills it.
 public class SaveData {
-    public Map<GemType, Integer> encodedGems;
-    public int encodedHealth;
+    public static final int PLAYERS = 2;
+    public static final int CELLS = BitBoard.SIZE * BitBoard.SIZE;
+    // Board cell without a gem, a gem that was being removed when the game was saved.
+    public static final byte EMPTY = -1;
+
+    public final int[][] gems = new int[PLAYERS][GemType.values().length];
+    public final int[] health = new int[PLAYERS];
+    public final int[] maxHealth = new int[PLAYERS];
+    public final boolean[] nextTurn = new boolean[PLAYERS];
+    public int currentPlayer;
+
+    // The gem type ordinal of every cell, indexed like BitBoard, or null when the board was never saved.
+    public byte[] board;
+    public long randomState;
 
-    SaveData(Map<GemType, Integer> encodedGems, int encodedHealth){
-        this.encodedGems = encodedGems;
-        this.encodedHealth = encodedHealth;
+    SaveData() {
     }
 }
-    
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+// Where the saves are kept. The SQLite database is the default, -Dpuzzle.saves=mapped keeps
+// them in a memory mapped file instead, which needs no native library. SaveConverter copies
+// the saves from one store to the other.
+public interface SaveStore extends AutoCloseable {
+    // Runs a group of writes, at once when the store supports it.
+    interface Transaction {
+        void run() throws IOException;
+    }
+
+    static SaveStore open() {
+        if ("mapped".equals(System.getProperty("puzzle.saves"))) {
+            return new MappedSaveStore(new File("puzzle.sav"));
+        }
+        return new Database();
+    }
+
+    // Opens a store by file name: a .db file is SQLite, anything else a mapped file.
+    static SaveStore open(File file) {
+        if (file.getName().endsWith(".db")) {
+            return new Database(file.getPath());
+        }
+        return new MappedSaveStore(file);
+    }
+
+    // Creates the store, or brings an existing one up to date.
+    void create();
+
+    void transaction(Transaction body) throws IOException;
+
+    // Creates the save, or overwrites it when the name is taken.
+    void insert(String saveName, SaveData saveData) throws IOException;
+
+    // Overwrites the save, if there is one with that name.
+    void update(String saveName, SaveData saveData) throws IOException;
+
+    void delete(String saveName) throws IOException;
+
+    // Returns null when there is no save with that name.
+    SaveData getGems(String saveName);
+
+    List<String> getAllSavesName();
+
+    // The save to continue from, or null.
+    String getSelected();
+
+    void setSelected(String saveName) throws IOException;
+
+    @Override
+    void close();
+}
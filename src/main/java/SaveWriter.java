@@ -0,0 +1,285 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes the saves on its own thread, so a slow disk never stalls the game. Requests for the same
+// slot made before the writer gets to them are merged into one, and everything waiting is written
+// in a single transaction. Reads see the requests that are not written yet, and never go to the
+// store: the saves are read once when the writer starts and kept up to date with what it writes.
+public class SaveWriter {
+    // How long the writer waits for more requests after the first one, to write them together.
+    private static final long BATCH_DELAY_MS = 100;
+
+    public interface Callback {
+        // Called on the writer thread, error is null when the save was written.
+        void done(String slot, Exception error);
+    }
+
+    // What is left to do on a slot: delete its row first, then insert or update it with data.
+    private static class Pending {
+        boolean delete;
+        SaveData data;
+        boolean insert;
+        final List<Callback> callbacks = new ArrayList<>();
+    }
+
+    private final SaveStore store;
+    private final Thread thread;
+
+    private final Object lock = new Object();
+    private Map<String, Pending> pending = new LinkedHashMap<>();
+    // The batch being written, still visible to reads until it is committed.
+    private Map<String, Pending> writing = Map.of();
+    // The saves in the store, as of the last batch committed.
+    private final Map<String, SaveData> saved = new LinkedHashMap<>();
+    private String selected;
+    private boolean busy;
+    private int flushing;
+    private boolean closed;
+
+    SaveWriter(SaveStore store) {
+        this.store = store;
+        for (String slot : store.getAllSavesName()) {
+            saved.put(slot, store.getGems(slot));
+        }
+        this.thread = new Thread(this::run, "Save writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public void insert(String slot, SaveData data, Callback callback) {
+        synchronized (lock) {
+            Pending request = request(slot, callback);
+            request.data = data;
+            request.insert = true;
+        }
+    }
+
+    public void update(String slot, SaveData data, Callback callback) {
+        synchronized (lock) {
+            Pending request = request(slot, callback);
+            // Updating a row that is going to be deleted changes nothing.
+            if (!request.delete || request.data != null) {
+                request.data = data;
+            }
+        }
+    }
+
+    public void delete(String slot, Callback callback) {
+        synchronized (lock) {
+            Pending request = request(slot, callback);
+            request.delete = true;
+            request.data = null;
+            request.insert = false;
+        }
+    }
+
+    // Remembers the slot to continue from on the next start.
+    public void select(String slot) {
+        synchronized (lock) {
+            selected = slot;
+            lock.notifyAll();
+        }
+    }
+
+    private Pending request(String slot, Callback callback) {
+        if (closed) {
+            throw new IllegalStateException("Save writer is closed");
+        }
+        Pending request = pending.computeIfAbsent(slot, key -> new Pending());
+        if (callback != null) {
+            request.callbacks.add(callback);
+        }
+        lock.notifyAll();
+        return request;
+    }
+
+    // Returns null when the slot has no save, or its save is going to be deleted.
+    public SaveData get(String slot) {
+        synchronized (lock) {
+            Pending request = pending.containsKey(slot) ? pending.get(slot) : writing.get(slot);
+            if (request != null && request.data != null) {
+                return request.data;
+            }
+            if (request != null && request.delete) {
+                return null;
+            }
+            return saved.get(slot);
+        }
+    }
+
+    public List<String> getAllSavesName() {
+        synchronized (lock) {
+            List<String> names = new ArrayList<>(saved.keySet());
+            apply(names, writing);
+            apply(names, pending);
+            return names;
+        }
+    }
+
+    private static void apply(List<String> names, Map<String, Pending> requests) {
+        for (Map.Entry<String, Pending> entry : requests.entrySet()) {
+            Pending request = entry.getValue();
+            if (request.delete) {
+                names.remove(entry.getKey());
+            }
+            if (request.insert && !names.contains(entry.getKey())) {
+                names.add(entry.getKey());
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Map<String, Pending> batch;
+            String slot;
+            synchronized (lock) {
+                while (pending.isEmpty() && selected == null && !closed) {
+                    waitLock(0);
+                }
+                if (pending.isEmpty() && selected == null) {
+                    return;
+                }
+
+                long deadline = System.currentTimeMillis() + BATCH_DELAY_MS;
+                for (long left = BATCH_DELAY_MS; left > 0 && !closed && flushing == 0; left = deadline - System.currentTimeMillis()) {
+                    waitLock(left);
+                }
+
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                writing = batch;
+                slot = selected;
+                selected = null;
+                busy = true;
+            }
+
+            boolean committed = write(batch, slot);
+
+            synchronized (lock) {
+                if (committed) {
+                    commit(batch);
+                }
+                writing = Map.of();
+                busy = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void waitLock(long timeout) {
+        try {
+            lock.wait(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Same merge as the transaction in write, applied to the saves kept for reads.
+    private void commit(Map<String, Pending> batch) {
+        for (Map.Entry<String, Pending> entry : batch.entrySet()) {
+            Pending request = entry.getValue();
+            if (request.delete) {
+                saved.remove(entry.getKey());
+            }
+            if (request.data != null && (request.insert || saved.containsKey(entry.getKey()))) {
+                saved.put(entry.getKey(), request.data);
+            }
+        }
+    }
+
+    // Returns false when the batch was rolled back.
+    private boolean write(Map<String, Pending> batch, String slot) {
+        Exception error = null;
+        if (!batch.isEmpty()) {
+            try {
+                store.transaction(() -> {
+                    for (Map.Entry<String, Pending> entry : batch.entrySet()) {
+                        Pending request = entry.getValue();
+                        if (request.delete) {
+                            store.delete(entry.getKey());
+                        }
+                        if (request.data != null) {
+                            if (request.insert) {
+                                store.insert(entry.getKey(), request.data);
+                            } else {
+                                store.update(entry.getKey(), request.data);
+                            }
+                        }
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                System.out.println(e.getMessage());
+                error = e;
+            }
+
+            for (Map.Entry<String, Pending> entry : batch.entrySet()) {
+                for (Callback callback : entry.getValue().callbacks) {
+                    callback.done(entry.getKey(), error);
+                }
+            }
+        }
+
+        if (slot != null) {
+            try {
+                store.setSelected(slot);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+        return error == null;
+    }
+
+    // Blocks until every request made so far is written.
+    public void flush() {
+        synchronized (lock) {
+            // The writer skips the batch delay while someone is waiting.
+            flushing++;
+            lock.notifyAll();
+            while (!pending.isEmpty() || selected != null || busy) {
+                waitLock(0);
+            }
+            flushing--;
+        }
+    }
+
+    // Writes what is left and closes the store, later requests are refused.
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store.close();
+    }
+}
@@ -24,24 +24,30 @@
 
 import org.joml.Vector2i;
 import java.awt.*;
+import java.util.Arrays;
 import java.util.List;
 
 public class ScoreBoard {
     private Label gemsText;
-    public static int currentPlayer;
-    public static PlayerScore[] playerScore = new PlayerScore[2];
+    public static final ScoreRules rules = new ScoreRules();
+    public static final PlayerScore[] playerScore = rules.playerScore;
     public Sprite playerHealthBar;
     public Sprite infoBarBg;
     public List<Sprite> infoBarList;
     public AnimatedSprite shieldGlowSprite;
     public AnimatedSprite[] shieldSprite = new AnimatedSprite[2];
 
+    // Per player the gem counts, health and max health, then the current player and the winner,
+    // as they were the last time the board looked for damage.
+    private static final int VALUES = 2 * (GemType.values().length + 2) + 2;
+    private final int[] values = new int[VALUES];
+    private final int[] drawnValues = new int[VALUES];
+    private int drawnShield = -1;
+    private final Vector2i shieldSize = new Vector2i(130, 130);
+
     ScoreBoard() {
         gemsText = new Label(new Vector2i(106, 260), "", 16);
-        playerScore[0] = new PlayerScore();
-        playerScore[1] = new PlayerScore();
-
-        currentPlayer = 0;
+        rules.reset();
 
         try {
             this.playerHealthBar = ImageManager.getImage("bmp_skin_battlemisc", "img_selglow");
@@ -74,110 +80,61 @@ public class ScoreBoard {
     }
 
     public void addGem(GemType gemType, int length) {
-        if (gemType == null || length == 0) {
-            return;
-        }
-
-        int totalGems = 0;
-        int invertPlayer = currentPlayer > 0 ? 0 : 1;
-
-        // If a set of 3 skull gems is collected, reduce the opponent's health (one per gem)
-        if (length >= 3 && gemType.equals(GemType.GEM_SKULL))
-            playerScore[invertPlayer].health -= 3;
-
-        // If a set of 3 yellow gems is collected, clear the opponent's gold
-        if (length >= 3 && gemType.equals(GemType.GEM_YELLOW))
-            playerScore[invertPlayer].clearGem(gemType);
-
-        // If a set of 3 red gems is collected, increase the player's health (one per gem)
-        if (length >= 3 && gemType.equals(GemType.GEM_RED))
-            playerScore[currentPlayer].health += 3;
-
-        // After collecting 10 experience gems, reduce the opponent's max health and clear the player's experience
-        totalGems = playerScore[currentPlayer].getGemCount(GemType.GEM_EXP);
-        if (totalGems >= 10) {
-            playerScore[currentPlayer].clearGem(gemType);
-            playerScore[invertPlayer].maxHealth -= 3;
-        }
-
-        // After collecting 10 gold gems, reduce the opponent's health in the next turn and reset the player's gold
-        totalGems = playerScore[currentPlayer].getGemCount(GemType.GEM_GOLD);
-        if (totalGems >= 10) {
-            if (playerScore[currentPlayer].nextTurn) {
-                playerScore[currentPlayer].clearGem(GemType.GEM_GOLD);
-                playerScore[currentPlayer].nextTurn = false;
-                playerScore[invertPlayer].health -= 3;
-            }
-            playerScore[currentPlayer].nextTurn = true;
-        }
-
-        playerScore[currentPlayer].addGem(gemType, length);
-
-        //Do not change the turn if the player creates a sequence of 4 gems of the same color.
-        if (length <= 4) {
-            currentPlayer = currentPlayer > 0 ? 0 : 1;
-        }
+        rules.addGem(gemType, length);
     }
 
     public boolean anyPlayerWinner () {
-        return playerScore[0].health == 0 || playerScore[1].health == 0;
+        return rules.anyPlayerWinner();
     }
 
     public void restart () {
-        playerScore[0].restart();
-        playerScore[1].restart();
+        rules.restart();
     }
 
     public void update(double dt) {
-        playerScore[0].maxHealth = Math.max(playerScore[0].maxHealth, 5);
-        playerScore[1].maxHealth = Math.max(playerScore[1].maxHealth, 5);
-        playerScore[0].health = Math.clamp(playerScore[0].health, 0, playerScore[0].maxHealth);
-        playerScore[1].health = Math.clamp(playerScore[1].health, 0, playerScore[1].maxHealth);
-
+        rules.clampHealth();
         this.shieldSprite[0].update(dt);
         this.shieldSprite[1].update(dt);
         this.shieldGlowSprite.update(dt);
     }
 
-    private void drawScore(Graphics g, Vector2i position, Color color, int score) {
+    private void drawScore(SpriteBatch batch, Vector2i position, Color color, int score) {
         gemsText.text = String.valueOf(score);
         gemsText.color = color;
         gemsText.position = position;
-        gemsText.render(g);
+        gemsText.render(batch);
     }
 
-    private void drawPlayerScore(Graphics g, int playerID, int posX) {
+    private void drawPlayerScore(SpriteBatch batch, int playerID, int posX) {
         int score = playerScore[playerID].getGemCount(GemType.GEM_GOLD);
-        drawScore(g, new Vector2i(posX, 288), Color.YELLOW, score);
+        drawScore(batch, new Vector2i(posX, 288), Color.YELLOW, score);
         score = playerScore[playerID].getGemCount(GemType.GEM_EXP);
-        drawScore(g, new Vector2i(posX + 73, 288), Color.MAGENTA, score);
-
-        infoBarBg.render(g, new Vector2i(posX + 59, 168));
+        drawScore(batch, new Vector2i(posX + 73, 288), Color.MAGENTA, score);
 
         for (int i = 0; i < 4; i++) {
             score = playerScore[playerID].getGemCount(GemType.values()[i]);
             int width = infoBarList.get(i).size.x;
             int height = infoBarList.get(i).size.y;
             int progress = score * height / 100;
-            infoBarList.get(i).render(g, new Vector2i(posX + 59, 168 + height - progress), new Vector2i(width, progress));
+            infoBarList.get(i).render(batch, new Vector2i(posX + 59, 168 + height - progress), new Vector2i(width, progress));
             posX += 21;
         }
 
         for (int i = 0; i < 4; i++) {
             score = playerScore[playerID].getGemCount(GemType.values()[i]);
-            drawScore(g, new Vector2i(posX - 21, 260), Color.WHITE, score);
+            drawScore(batch, new Vector2i(posX - 21, 260), Color.WHITE, score);
             posX += 21;
         }
     }
 
-    private void drawPlayerHealth(Graphics g, int playerID, int posX) {
+    private void drawPlayerHealth(SpriteBatch batch, int playerID, int posX) {
         int health = playerScore[playerID].health;
         int maxHealth = playerScore[playerID].maxHealth;
         int progress = health * this.playerHealthBar.size.x / maxHealth;
         Vector2i position = new Vector2i(posX, 123);
-        this.playerHealthBar.render(g, position, new Vector2i(progress, this.playerHealthBar.size.y));
+        this.playerHealthBar.render(batch, position, new Vector2i(progress, this.playerHealthBar.size.y));
 
-        FontMetrics metrics = g.getFontMetrics(this.gemsText.font);
+        FontMetrics metrics = batch.getGraphics().getFontMetrics(this.gemsText.font);
         this.gemsText.text = health + " de " + maxHealth;
         int width = metrics.stringWidth(this.gemsText.text);
         int height = metrics.getHeight();
@@ -189,35 +146,73 @@ public class ScoreBoard {
 
         this.gemsText.color = Color.WHITE;
         this.gemsText.shadowOffset = 0;
-        this.gemsText.render(g);
+        this.gemsText.render(batch);
     }
 
-    private void drawShield(Graphics g) {
+    private void drawShield(SpriteBatch batch) {
         if (this.anyPlayerWinner()) {
             return;
         }
 
-        Vector2i position = currentPlayer == 0 ?
+        Vector2i position = getShieldPosition();
+        Vector2i spriteSize = this.shieldSprite[rules.currentPlayer].size;
+        this.shieldGlowSprite.render(batch, new Vector2i(
+                position.x - (shieldSize.x - spriteSize.x) / 2,
+                position.y - (shieldSize.x - spriteSize.y) / 2), shieldSize);
+
+        this.shieldSprite[rules.currentPlayer].render(batch, position);
+    }
+
+    private Vector2i getShieldPosition() {
+        return rules.currentPlayer == 0 ?
                 new Vector2i(84, 70) :
                 new Vector2i(900, 70);
+    }
 
-        Vector2i spriteSize = this.shieldSprite[currentPlayer].size;
-        Vector2i newSize = new Vector2i(130, 130);
-        this.shieldGlowSprite.render(g, new Vector2i(
-                position.x - (newSize.x - spriteSize.x) / 2,
-                position.y - (newSize.x - spriteSize.y) / 2), newSize);
+    // Parts of the panels that never change, drawn once into the static layer.
+    void renderStatic(Graphics g) {
+        infoBarBg.render(g, new Vector2i(44 + 59, 168));
+        infoBarBg.render(g, new Vector2i(868 + 59, 168));
+    }
 
-        this.shieldSprite[currentPlayer].render(g, position);
+    // Adds both panels to the region when a score changed, or only the shield when it moved to its next frame.
+    void damage(DirtyRegion region) {
+        int n = 0;
+        for (PlayerScore score : playerScore) {
+            for (GemType gemType : GemType.values()) {
+                values[n++] = score.getGemCount(gemType);
+            }
+            values[n++] = score.health;
+            values[n++] = score.maxHealth;
+        }
+        values[n++] = rules.currentPlayer;
+        values[n] = anyPlayerWinner() ? 1 : 0;
+
+        int shield = anyPlayerWinner() ? -1 : shieldSprite[rules.currentPlayer].getFrame() << 8 | shieldGlowSprite.getFrame();
+        if (!Arrays.equals(values, drawnValues)) {
+            System.arraycopy(values, 0, drawnValues, 0, VALUES);
+            // The text of a panel can reach a little over the board.
+            int margin = 24;
+            region.add(0, 0, Grid.offset.x + margin, 340);
+            region.add(Grid.offset.x + Grid.size.x - margin, 0, 1024, 340);
+        } else if (shield != drawnShield && shield != -1) {
+            Vector2i position = getShieldPosition();
+            Vector2i spriteSize = this.shieldSprite[rules.currentPlayer].size;
+            region.add(position.x - (shieldSize.x - spriteSize.x) / 2, position.y - (shieldSize.y - spriteSize.y) / 2, shieldSize.x, shieldSize.y);
+        }
+        drawnShield = shield;
     }
 
-    void render(Graphics g) {
+    void render(SpriteBatch batch) {
+        long start = Metrics.start();
         gemsText.shadowOffset = 2;
 
-        drawPlayerScore(g, 0, 44);
-        drawPlayerScore(g, 1, 868);
+        drawPlayerScore(batch, 0, 44);
+        drawPlayerScore(batch, 1, 868);
 
-        drawPlayerHealth(g, 0, 15);
-        drawPlayerHealth(g, 1, 838);
-        drawShield(g);
+        drawPlayerHealth(batch, 0, 15);
+        drawPlayerHealth(batch, 1, 838);
+        drawShield(batch);
+        Metrics.stop(Metrics.SCOREBOARD_RENDER, start);
     }
 }
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// Score and turn rules of a match, without anything related to rendering.
+public class ScoreRules {
+    public final PlayerScore[] playerScore = new PlayerScore[2];
+    public int currentPlayer;
+
+    ScoreRules() {
+        this.reset();
+    }
+
+    // Starts over with fresh players, the first one to play.
+    public void reset() {
+        playerScore[0] = new PlayerScore();
+        playerScore[1] = new PlayerScore();
+        currentPlayer = 0;
+    }
+
+    public void addGem(GemType gemType, int length) {
+        if (gemType == null || length == 0) {
+            return;
+        }
+
+        int totalGems = 0;
+        int invertPlayer = currentPlayer > 0 ? 0 : 1;
+
+        // If a set of 3 skull gems is collected, reduce the opponent's health (one per gem)
+        if (length >= 3 && gemType.equals(GemType.GEM_SKULL))
+            playerScore[invertPlayer].health -= 3;
+
+        // If a set of 3 yellow gems is collected, clear the opponent's gold
+        if (length >= 3 && gemType.equals(GemType.GEM_YELLOW))
+            playerScore[invertPlayer].clearGem(gemType);
+
+        // If a set of 3 red gems is collected, increase the player's health (one per gem)
+        if (length >= 3 && gemType.equals(GemType.GEM_RED))
+            playerScore[currentPlayer].health += 3;
+
+        // After collecting 10 experience gems, reduce the opponent's max health and clear the player's experience
+        totalGems = playerScore[currentPlayer].getGemCount(GemType.GEM_EXP);
+        if (totalGems >= 10) {
+            playerScore[currentPlayer].clearGem(gemType);
+            playerScore[invertPlayer].maxHealth -= 3;
+        }
+
+        // After collecting 10 gold gems, reduce the opponent's health in the next turn and reset the player's gold
+        totalGems = playerScore[currentPlayer].getGemCount(GemType.GEM_GOLD);
+        if (totalGems >= 10) {
+            if (playerScore[currentPlayer].nextTurn) {
+                playerScore[currentPlayer].clearGem(GemType.GEM_GOLD);
+                playerScore[currentPlayer].nextTurn = false;
+                playerScore[invertPlayer].health -= 3;
+            }
+            playerScore[currentPlayer].nextTurn = true;
+        }
+
+        playerScore[currentPlayer].addGem(gemType, length);
+
+        //Do not change the turn if the player creates a sequence of 4 gems of the same color.
+        if (length <= 4) {
+            currentPlayer = currentPlayer > 0 ? 0 : 1;
+        }
+    }
+
+    public boolean anyPlayerWinner () {
+        return playerScore[0].health == 0 || playerScore[1].health == 0;
+    }
+
+    public void restart () {
+        playerScore[0].restart();
+        playerScore[1].restart();
+    }
+
+    // Returns the player who won the match, or -1 if it is still running.
+    public int getWinner() {
+        if (playerScore[1].health == 0) {
+            return 0;
+        }
+        if (playerScore[0].health == 0) {
+            return 1;
+        }
+        return -1;
+    }
+
+    // Keeps health and max health inside the valid range.
+    public void clampHealth() {
+        playerScore[0].maxHealth = Math.max(playerScore[0].maxHealth, 5);
+        playerScore[1].maxHealth = Math.max(playerScore[1].maxHealth, 5);
+        playerScore[0].health = Math.clamp(playerScore[0].health, 0, playerScore[0].maxHealth);
+        playerScore[1].health = Math.clamp(playerScore[1].health, 0, playerScore[1].maxHealth);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.Graphics;
+import java.io.IOException;
+
+// A battle played the same way every time: a board made from a fixed seed and clicks on fixed
+// steps, advanced by Game.TIME_STEP per step. The frames it draws only depend on the step.
+public class ScriptedBattle {
+    public static final int STEPS = 360;
+    private static final long SEED = 0x5EEDL;
+    private static final GemType[] TYPES = GemType.values();
+
+    // Steps where the first legal move of the board is played, its second gem clicked SWAP_STEPS later.
+    private static final int[] MOVES = {30, 150};
+    private static final int SWAP_STEPS = 15;
+    // Step, column and row of a gem that is clicked and left selected.
+    private static final int[] SELECT = {260, 1, 1};
+
+    private final Grid grid;
+    private final BattleScreen screen;
+    private final MouseHandler mouse = new MouseHandler();
+    private int step;
+    private int move;
+
+    ScriptedBattle() throws IOException {
+        ImageManager.loadAssets("resources\\Assets.json");
+        // Held like the game screen holds them, so no group is evicted between frames.
+        ImageManager.acquire(GameMenu.GAME_GROUPS).join();
+        grid = new Grid(8, 8);
+        screen = new BattleScreen(grid);
+        restart();
+    }
+
+    // Puts the board and the scores back to step 0.
+    public void restart() {
+        step = 0;
+        ScoreBoard.rules.reset();
+
+        // A board without runs, so nothing moves before the first click.
+        Rng random = new Rng(SEED);
+        SaveData data = new SaveData();
+        data.board = new byte[SaveData.CELLS];
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            for (int j = 0; j < BitBoard.SIZE; j++) {
+                int type;
+                do {
+                    type = random.nextInt(0, TYPES.length);
+                } while (i >= 2 && data.board[BitBoard.index(i - 1, j)] == type && data.board[BitBoard.index(i - 2, j)] == type
+                        || j >= 2 && data.board[BitBoard.index(i, j - 1)] == type && data.board[BitBoard.index(i, j - 2)] == type);
+                data.board[BitBoard.index(i, j)] = (byte) type;
+            }
+        }
+        data.randomState = random.getState();
+        grid.restoreState(data);
+        move = -1;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public void advance() {
+        for (int start : MOVES) {
+            if (step == start) {
+                move = grid.findMove();
+                if (move >= 0) {
+                    click(MoveIndex.getCell(move));
+                }
+            } else if (step == start + SWAP_STEPS && move >= 0) {
+                click(MoveIndex.getTarget(move));
+                move = -1;
+            }
+        }
+        if (step == SELECT[0]) {
+            click(BitBoard.index(SELECT[1], SELECT[2]));
+        }
+        grid.update(Game.TIME_STEP);
+        step++;
+    }
+
+    // Clicks the gem of a board cell, whose row is the column on screen.
+    private void click(int cell) {
+        int x = Grid.offset.x + BitBoard.row(cell) * (Grid.blockSize + Grid.gap) + Grid.blockSize / 2;
+        int y = Grid.offset.y + BitBoard.column(cell) * (Grid.blockSize + Grid.gap) + Grid.blockSize / 2;
+        mouse.set(InputQueue.MOUSE_PRESSED, x, y, 1, 0);
+        grid.mouseEvent(mouse);
+        mouse.set(InputQueue.MOUSE_RELEASED, x, y, 1, 0);
+        grid.mouseEvent(mouse);
+    }
+
+    // Draws the whole frame, with the screen GameMenu draws the game with.
+    public void render(RenderTarget target) {
+        do {
+            render(target.begin());
+        } while (!target.end());
+    }
+
+    public void render(Graphics g) {
+        screen.render(g);
+    }
+
+    // Adds to the region what changed on screen since the last call, like the game screen does.
+    public void damage(DirtyRegion region) {
+        screen.damage(region);
+    }
+}
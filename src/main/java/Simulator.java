@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// Plays headless games with random moves and reports how fast the game core runs.
+// Usage: Simulator [games] [seed] [max moves per game]
+public class Simulator {
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        int maxMoves = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+
+        GameCore core = new GameCore(8, 8, seed);
+        Rng random = new Rng(~seed);
+        int[] moves = new int[MoveIndex.MAX_MOVES];
+        int[] wins = new int[2];
+        int unfinished = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            core.newGame();
+            int played = 0;
+            while (!core.hasWinner() && played < maxMoves) {
+                int count = core.getMoves().getMoves(moves);
+                core.swap(moves[random.nextInt(0, count)]);
+                played++;
+            }
+
+            if (core.hasWinner()) {
+                wins[core.getWinner()]++;
+            } else {
+                unfinished++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("seed: " + seed);
+        System.out.printf("games: %d in %.3f s (%.1f games/s)%n", games, seconds, games / seconds);
+        System.out.printf("swaps: %d (%.1f swaps/s)%n", core.getSwapCount(), core.getSwapCount() / seconds);
+        System.out.printf("runs scored: %d, cascades: %d%n", core.getRunCount(), core.getCascadeCount());
+        System.out.printf("player 1 wins: %d, player 2 wins: %d, unfinished: %d%n", wins[0], wins[1], unfinished);
+    }
+}
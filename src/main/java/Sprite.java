@@ -37,6 +37,10 @@ public class Sprite {
     public Vector2i pos;
     public Vector2i size;
 
+    private final AffineTransform transform = new AffineTransform();
+    // The asset group the pixels come from, so they can be loaded again after an eviction.
+    AssetGroup group;
+
     public Sprite() {
         this(null);
     }
@@ -69,32 +73,69 @@ public class Sprite {
         this.render(g, pos.x, pos.y, size.x, size.y);
     }
 
+    public void render(SpriteBatch batch, Vector2i pos) {
+        this.render(batch, pos.x, pos.y, size.x, size.y);
+    }
+
+    public void render(SpriteBatch batch, Vector2i pos, Vector2i size) {
+        this.render(batch, pos.x, pos.y, size.x, size.y);
+    }
+
+    public void render(SpriteBatch batch, int x, int y, int w, int h) {
+        long start = Metrics.start();
+        if (this.image == null && this.group != null) {
+            ImageManager.restore(this.group);
+        }
+        BufferedImage image = this.image;
+        if (image != null) {
+            batch.draw(image, x, y, w, h, alpha, angle);
+        }
+        Metrics.stop(Metrics.SPRITE_RENDER, start);
+    }
+
     public void render(Graphics g, int x, int y, int w, int h) {
+        long start = Metrics.start();
+        if (this.image == null && this.group != null) {
+            ImageManager.restore(this.group);
+        }
+        BufferedImage image = this.image;
+        if (image == null) {
+            Metrics.stop(Metrics.SPRITE_RENDER, start);
+            return;
+        }
 
         if (this.angle == 0) {
             Graphics2D g2d = (Graphics2D) g;
 
             Composite composite = g2d.getComposite();
             g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
-            g2d.drawImage(this.image, x, y, w, h, null);
+            g2d.drawImage(image, x, y, w, h, null);
             g2d.setComposite(composite);
+            Metrics.stop(Metrics.SPRITE_RENDER, start);
             return;
         }
 
-        int origWidth = this.image.getWidth(null);
-        int origHeight = this.image.getHeight(null);
-
-        BufferedImage rotated = new BufferedImage(origWidth, origHeight, image.getType());
-        Graphics2D g2d = rotated.createGraphics();
-        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
-        g2d.translate((double) origWidth / 2, (double) origHeight / 2);
-        g2d.rotate(Math.toRadians(angle));
-        g2d.drawRenderedImage(this.image, AffineTransform.getTranslateInstance(-origWidth / 2.0, -origHeight / 2.0));
-        g2d.dispose();
+        int origWidth = image.getWidth(null);
+        int origHeight = image.getHeight(null);
 
         // Center the rotated image
         int newX = x - (w - origWidth) / 2;
         int newY = y - (h - origHeight) / 2;
-        g.drawImage(rotated, newX, newY, w, h, null);
+
+        // Rotates around the center of the image straight onto the target, clipped to the
+        // image bounds like the rotated copy it used to draw.
+        this.transform.setToTranslation(newX, newY);
+        this.transform.scale((double) w / origWidth, (double) h / origHeight);
+        this.transform.rotate(Math.toRadians(angle), origWidth / 2.0, origHeight / 2.0);
+
+        Graphics2D g2d = (Graphics2D) g;
+        Composite composite = g2d.getComposite();
+        Shape clip = g2d.getClip();
+        g2d.clipRect(newX, newY, w, h);
+        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        g2d.drawImage(image, this.transform, null);
+        g2d.setComposite(composite);
+        g2d.setClip(clip);
+        Metrics.stop(Metrics.SPRITE_RENDER, start);
     }
 }
@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Collects the images drawn in a frame and draws them together on flush, grouped by the pixels they
+// come from and by alpha, so the Graphics2D state only changes when it has to. An image only moves
+// ahead of images drawn before it that it does not overlap, so the frame looks the same as if
+// everything was drawn in order. Set -Dpuzzle.batch=false to draw every image right away instead.
+public class SpriteBatch {
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("puzzle.batch", "true"));
+    private static final int CAPACITY = 1024;
+
+    // One composite per alpha level, a composite is only ever made once.
+    private static final AlphaComposite[] composites = new AlphaComposite[256];
+
+    private Graphics2D g;
+    private Shape clip;
+    private Rectangle clipBounds;
+    private final AffineTransform transform = new AffineTransform();
+
+    // The commands, indexed in the order they were drawn.
+    private final BufferedImage[] image = new BufferedImage[CAPACITY];
+    private final int[] sx = new int[CAPACITY];
+    private final int[] sy = new int[CAPACITY];
+    private final int[] sw = new int[CAPACITY];
+    private final int[] sh = new int[CAPACITY];
+    private final int[] dx = new int[CAPACITY];
+    private final int[] dy = new int[CAPACITY];
+    private final int[] dw = new int[CAPACITY];
+    private final int[] dh = new int[CAPACITY];
+    private final int[] alpha = new int[CAPACITY];
+    private final int[] angle = new int[CAPACITY];
+    // What the command covers on screen, a rotated image is clipped to it.
+    private final int[] bx = new int[CAPACITY];
+    private final int[] by = new int[CAPACITY];
+    private final int[] layer = new int[CAPACITY];
+    private final long[] order = new long[CAPACITY];
+    private int count;
+
+    // Images sharing a data buffer are the same pixels, or regions of the same atlas page.
+    private final Map<Object, Integer> sources = new IdentityHashMap<>();
+
+    // Drawn and composite changes since begin, to see how well a frame batches.
+    private int draws;
+    private int stateChanges;
+
+    private static AlphaComposite getComposite(int alpha) {
+        AlphaComposite composite = composites[alpha];
+        if (composite == null) {
+            composite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha / 255f);
+            composites[alpha] = composite;
+        }
+        return composite;
+    }
+
+    public void begin(Graphics g) {
+        this.g = (Graphics2D) g;
+        this.clip = this.g.getClip();
+        this.clipBounds = this.g.getClipBounds();
+        this.count = 0;
+        this.draws = 0;
+        this.stateChanges = 0;
+    }
+
+    // The graphics being drawn on, anything drawn on it directly must come after a flush.
+    public Graphics2D getGraphics() {
+        return g;
+    }
+
+    public void draw(BufferedImage image, int x, int y, int w, int h, float alpha, int angle) {
+        draw(image, 0, 0, image.getWidth(), image.getHeight(), x, y, w, h, alpha, angle);
+    }
+
+    // Draws the source rectangle of the image into the destination one, turned by angle degrees
+    // around its center and clipped to the destination when it is.
+    public void draw(BufferedImage image, int sx, int sy, int sw, int sh, int x, int y, int w, int h, float alpha, int angle) {
+        int a = Math.round(Math.clamp(alpha, 0f, 1f) * 255);
+        if (image == null || w <= 0 || h <= 0 || a == 0) {
+            return;
+        }
+
+        int left = x;
+        int top = y;
+        if (angle != 0) {
+            left = x - (w - sw) / 2;
+            top = y - (h - sh) / 2;
+        }
+        if (clipBounds != null && (left >= clipBounds.x + clipBounds.width || top >= clipBounds.y + clipBounds.height
+                || left + w <= clipBounds.x || top + h <= clipBounds.y)) {
+            return;
+        }
+
+        if (count == CAPACITY) {
+            flush();
+        }
+        int i = count++;
+        this.image[i] = image;
+        this.sx[i] = sx;
+        this.sy[i] = sy;
+        this.sw[i] = sw;
+        this.sh[i] = sh;
+        this.dx[i] = x;
+        this.dy[i] = y;
+        this.dw[i] = w;
+        this.dh[i] = h;
+        this.alpha[i] = a;
+        this.angle[i] = angle;
+        this.bx[i] = left;
+        this.by[i] = top;
+
+        if (!ENABLED) {
+            flush();
+        }
+    }
+
+    // Draws everything collected so far.
+    public void flush() {
+        if (count == 0) {
+            return;
+        }
+
+        // A command goes one layer above the last command before it that it overlaps, then the
+        // commands are sorted by layer, source, alpha and the order they came in.
+        for (int i = 0; i < count; i++) {
+            int l = 0;
+            for (int j = 0; j < i; j++) {
+                if (layer[j] >= l && bx[i] < bx[j] + dw[j] && bx[j] < bx[i] + dw[i] && by[i] < by[j] + dh[j] && by[j] < by[i] + dh[i]) {
+                    l = layer[j] + 1;
+                }
+            }
+            layer[i] = l;
+
+            Object buffer = image[i].getRaster().getDataBuffer();
+            Integer source = sources.get(buffer);
+            if (source == null) {
+                source = sources.size();
+                sources.put(buffer, source);
+            }
+            order[i] = (long) l << 44 | (long) Math.min(source, 0xFFFFF) << 20 | (long) alpha[i] << 12 | i;
+        }
+        Arrays.sort(order, 0, count);
+
+        Composite original = g.getComposite();
+        int current = -1;
+        for (int n = 0; n < count; n++) {
+            int i = (int) (order[n] & 0xFFF);
+            if (alpha[i] != current) {
+                current = alpha[i];
+                g.setComposite(getComposite(current));
+                stateChanges++;
+            }
+
+            if (angle[i] == 0) {
+                g.drawImage(image[i], dx[i], dy[i], dx[i] + dw[i], dy[i] + dh[i], sx[i], sy[i], sx[i] + sw[i], sy[i] + sh[i], null);
+            } else {
+                BufferedImage source = image[i];
+                if (sx[i] != 0 || sy[i] != 0 || sw[i] != source.getWidth() || sh[i] != source.getHeight()) {
+                    source = source.getSubimage(sx[i], sy[i], sw[i], sh[i]);
+                }
+                transform.setToTranslation(bx[i], by[i]);
+                transform.scale((double) dw[i] / sw[i], (double) dh[i] / sh[i]);
+                transform.rotate(Math.toRadians(angle[i]), sw[i] / 2.0, sh[i] / 2.0);
+                g.clipRect(bx[i], by[i], dw[i], dh[i]);
+                g.drawImage(source, transform, null);
+                g.setClip(clip);
+            }
+            image[i] = null;
+            draws++;
+        }
+        g.setComposite(original);
+        sources.clear();
+        count = 0;
+    }
+
+    public void end() {
+        flush();
+        g = null;
+        clip = null;
+        clipBounds = null;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getStateChanges() {
+        return stateChanges;
+    }
+}
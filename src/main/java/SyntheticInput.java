@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.util.concurrent.TimeUnit;
+
+// Clicks the same gem at a fixed rate while a game is shown, for repeatable latency measurements.
+// The clicks go through the AWT event thread like real ones, so they take the whole input path,
+// and clicking the same gem again only selects and unselects it. Enabled with
+// -Dpuzzle.synthetic=<clicks per second>.
+public class SyntheticInput implements Runnable {
+    private static final int ROW = 3;
+    private static final int COLUMN = 3;
+
+    private final Component target;
+    private final long periodNanos;
+
+    SyntheticInput(Component target, int clicksPerSecond) {
+        this.target = target;
+        this.periodNanos = TimeUnit.SECONDS.toNanos(1) / clicksPerSecond;
+    }
+
+    public static void startIfEnabled(Component target) {
+        int rate = Integer.getInteger("puzzle.synthetic", 0);
+        if (rate <= 0) {
+            return;
+        }
+        Thread thread = new Thread(new SyntheticInput(target, rate), "Synthetic input");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void run() {
+        int x = Grid.offset.x + COLUMN * (Grid.blockSize + Grid.gap) + Grid.blockSize / 2;
+        int y = Grid.offset.y + ROW * (Grid.blockSize + Grid.gap) + Grid.blockSize / 2;
+        long next = System.nanoTime();
+        while (true) {
+            next += periodNanos;
+            long remaining = next - System.nanoTime();
+            if (remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                // Too late to keep the rate, start counting again from now.
+                next = System.nanoTime();
+            }
+
+            EventQueue.invokeLater(() -> {
+                // A click anywhere else could press a menu button.
+                if (!GameMenu.isPlaying()) {
+                    return;
+                }
+                long when = System.currentTimeMillis();
+                target.dispatchEvent(new MouseEvent(target, MouseEvent.MOUSE_PRESSED, when, InputEvent.BUTTON1_DOWN_MASK, x, y, 1, false, MouseEvent.BUTTON1));
+                target.dispatchEvent(new MouseEvent(target, MouseEvent.MOUSE_RELEASED, when, 0, x, y, 1, false, MouseEvent.BUTTON1));
+            });
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Rendered labels shared by every Label, keyed by everything that changes their pixels and
+// bounded by an LRU so texts that change every frame do not pile up.
+public class TextCache {
+    private static final int MAX_ENTRIES = 256;
+
+    static class Key {
+        String text;
+        Font font;
+        int color;
+        int outlineColor;
+        int backgroundColor;
+        int shadowOffset;
+        int outlineWidth;
+        int backgroundWidth;
+
+        void set(Label label) {
+            this.text = label.text;
+            this.font = label.font;
+            this.color = label.color.getRGB();
+            this.outlineColor = label.outlineColor.getRGB();
+            this.backgroundColor = label.backgroundColor.getRGB();
+            this.shadowOffset = label.shadowOffset;
+            this.outlineWidth = label.outlineWidth;
+            this.backgroundWidth = label.backgroundWidth;
+        }
+
+        boolean matches(Label label) {
+            return this.text.equals(label.text) && this.font.equals(label.font)
+                    && this.color == label.color.getRGB()
+                    && this.outlineColor == label.outlineColor.getRGB()
+                    && this.backgroundColor == label.backgroundColor.getRGB()
+                    && this.shadowOffset == label.shadowOffset
+                    && this.outlineWidth == label.outlineWidth
+                    && this.backgroundWidth == label.backgroundWidth;
+        }
+
+        Key copy() {
+            Key key = new Key();
+            key.text = this.text;
+            key.font = this.font;
+            key.color = this.color;
+            key.outlineColor = this.outlineColor;
+            key.backgroundColor = this.backgroundColor;
+            key.shadowOffset = this.shadowOffset;
+            key.outlineWidth = this.outlineWidth;
+            key.backgroundWidth = this.backgroundWidth;
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return this.text.equals(key.text) && this.font.equals(key.font)
+                    && this.color == key.color
+                    && this.outlineColor == key.outlineColor
+                    && this.backgroundColor == key.backgroundColor
+                    && this.shadowOffset == key.shadowOffset
+                    && this.outlineWidth == key.outlineWidth
+                    && this.backgroundWidth == key.backgroundWidth;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = this.text.hashCode();
+            hash = 31 * hash + this.font.hashCode();
+            hash = 31 * hash + this.color;
+            hash = 31 * hash + this.outlineColor;
+            hash = 31 * hash + this.backgroundColor;
+            hash = 31 * hash + this.shadowOffset;
+            hash = 31 * hash + this.outlineWidth;
+            hash = 31 * hash + this.backgroundWidth;
+            return hash;
+        }
+    }
+
+    // The rendered label and where its top left corner sits relative to the label position.
+    static class Entry {
+        final Key key;
+        final BufferedImage image;
+        final int x;
+        final int y;
+
+        Entry(Key key, BufferedImage image, int x, int y) {
+            this.key = key;
+            this.image = image;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private static final Map<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // Reused for lookups, a key is only allocated when a new entry is stored.
+    private static final Key probe = new Key();
+
+    public static Entry get(Label label) {
+        probe.set(label);
+        return entries.get(probe);
+    }
+
+    public static Entry put(Label label, BufferedImage image, int x, int y) {
+        probe.set(label);
+        Entry entry = new Entry(probe.copy(), image, x, y);
+        entries.put(entry.key, entry);
+        return entry;
+    }
+
+    public static void clear() {
+        entries.clear();
+    }
+
+    public static int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BattleScreenTest {
+    private static final int WIDTH = RenderTarget.WIDTH;
+    private static final int HEIGHT = RenderTarget.HEIGHT;
+
+    private static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    // Draws only what the battle reports as changed, each rectangle clipped the way RetainedFrame
+    // does, and checks the frame against one drawn whole at every step.
+    @Test
+    void drawingTheDamageMatchesAFullRedraw() throws IOException {
+        ScriptedBattle battle = new ScriptedBattle();
+        BufferedImage retained = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        BufferedImage full = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        Rectangle rect = new Rectangle();
+
+        region.addAll();
+        while (battle.getStep() <= ScriptedBattle.STEPS) {
+            battle.damage(region);
+            Graphics2D g = retained.createGraphics();
+            for (int i = 0; i < region.getCount(); i++) {
+                g.setClip(region.get(i, rect));
+                battle.render(g);
+            }
+            g.dispose();
+            region.clear();
+
+            g = full.createGraphics();
+            battle.render(g);
+            g.dispose();
+
+            int[] expected = pixels(full);
+            int[] actual = pixels(retained);
+            for (int i = 0; i < expected.length; i++) {
+                if (expected[i] != actual[i]) {
+                    assertEquals(expected[i], actual[i], "step " + battle.getStep() + ", pixel " + i % WIDTH + "," + i / WIDTH);
+                }
+            }
+            battle.advance();
+        }
+    }
+}
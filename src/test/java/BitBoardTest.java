@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BitBoardTest {
+    private static final GemType[] TYPES = GemType.values();
+
+    // Fills a board with few types, and some empty cells, so most boards have several runs.
+    private static GemType[][] randomCells(Random random) {
+        int types = 2 + random.nextInt(3);
+        GemType[][] cells = new GemType[BitBoard.SIZE][BitBoard.SIZE];
+        for (int row = 0; row < BitBoard.SIZE; row++) {
+            for (int column = 0; column < BitBoard.SIZE; column++) {
+                cells[row][column] = random.nextInt(20) == 0 ? null : TYPES[random.nextInt(types)];
+            }
+        }
+        return cells;
+    }
+
+    // Runs as "cell length type", found cell by cell: every row first, then every column.
+    private static List<String> naiveRuns(GemType[][] cells) {
+        List<String> runs = new ArrayList<>();
+        for (int row = 0; row < BitBoard.SIZE; row++) {
+            int length = 1;
+            for (int column = 0; column < BitBoard.SIZE; column++) {
+                GemType type = cells[row][column];
+                if (column < BitBoard.SIZE - 1 && type != null && type == cells[row][column + 1]) {
+                    length++;
+                } else {
+                    if (length >= 3) {
+                        runs.add(BitBoard.index(row, column) + " " + length + " " + type);
+                    }
+                    length = 1;
+                }
+            }
+        }
+        for (int column = 0; column < BitBoard.SIZE; column++) {
+            int length = 1;
+            for (int row = 0; row < BitBoard.SIZE; row++) {
+                GemType type = cells[row][column];
+                if (row < BitBoard.SIZE - 1 && type != null && type == cells[row + 1][column]) {
+                    length++;
+                } else {
+                    if (length >= 3) {
+                        runs.add(BitBoard.index(row, column) + " " + length + " " + type);
+                    }
+                    length = 1;
+                }
+            }
+        }
+        return runs;
+    }
+
+    private static long naiveMatchMask(GemType[][] cells) {
+        long mask = 0L;
+        for (int row = 0; row < BitBoard.SIZE; row++) {
+            for (int column = 0; column < BitBoard.SIZE; column++) {
+                GemType type = cells[row][column];
+                if (type == null) {
+                    continue;
+                }
+                int left = column;
+                while (left > 0 && cells[row][left - 1] == type) {
+                    left--;
+                }
+                int right = column;
+                while (right < BitBoard.SIZE - 1 && cells[row][right + 1] == type) {
+                    right++;
+                }
+                int top = row;
+                while (top > 0 && cells[top - 1][column] == type) {
+                    top--;
+                }
+                int bottom = row;
+                while (bottom < BitBoard.SIZE - 1 && cells[bottom + 1][column] == type) {
+                    bottom++;
+                }
+                if (right - left >= 2 || bottom - top >= 2) {
+                    mask |= 1L << BitBoard.index(row, column);
+                }
+            }
+        }
+        return mask;
+    }
+
+    @Test
+    void findsTheSameRunsAsAScan() {
+        Random random = new Random(1);
+        BitBoard board = new BitBoard();
+        for (int i = 0; i < 20000; i++) {
+            GemType[][] cells = randomCells(random);
+            board.clear();
+            for (int row = 0; row < BitBoard.SIZE; row++) {
+                for (int column = 0; column < BitBoard.SIZE; column++) {
+                    board.set(row, column, cells[row][column]);
+                }
+            }
+
+            List<String> expected = naiveRuns(cells);
+            assertEquals(!expected.isEmpty(), board.findMatches());
+
+            List<String> runs = new ArrayList<>();
+            for (int run = 0; run < board.getRunCount(); run++) {
+                runs.add(board.getRunCell(run) + " " + board.getRunLength(run) + " " + board.getRunType(run));
+            }
+            assertEquals(expected, runs);
+            assertEquals(naiveMatchMask(cells), board.getMatchMask());
+        }
+    }
+
+    @Test
+    void transposeSwapsRowsAndColumns() {
+        Random random = new Random(2);
+        for (int i = 0; i < 1000; i++) {
+            long mask = random.nextLong();
+            long expected = 0L;
+            for (int cell = 0; cell < 64; cell++) {
+                if ((mask >>> cell & 1L) != 0) {
+                    expected |= 1L << BitBoard.index(BitBoard.column(cell), BitBoard.row(cell));
+                }
+            }
+            assertEquals(expected, BitBoard.transpose(mask));
+        }
+    }
+}
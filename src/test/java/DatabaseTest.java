@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseTest {
+    @TempDir
+    Path dir;
+
+    // The version 0 table, one row per save with both players packed 8 bits at a time.
+    private static final String GAME_SAVE = "CREATE TABLE game_save ("
+            + " id integer PRIMARY KEY, save_name TEXT NOT NULL,"
+            + " gemGreen INTEGER NOT NULL, gemRed INTEGER NOT NULL, gemYellow INTEGER NOT NULL,"
+            + " gemBlue INTEGER NOT NULL, gemSkull INTEGER NOT NULL, gemExp INTEGER NOT NULL,"
+            + " gemGold INTEGER NOT NULL, health INTEGER NOT NULL)";
+
+    private static void insertVersion0(Connection connection, String name, int first) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO game_save(save_name, gemGreen, gemRed,"
+                + " gemYellow, gemBlue, gemSkull, gemExp, gemGold, health) VALUES(?,?,?,?,?,?,?,?,?)")) {
+            stmt.setString(1, name);
+            for (int gem = 0; gem < GemType.values().length; gem++) {
+                // Player 0 in the low byte, player 1 in the next one.
+                stmt.setInt(2 + gem, (first + gem) | (first + 100 + gem) << 8);
+            }
+            // Health, max health of player 0, then of player 1.
+            stmt.setInt(9, first | (first + 1) << 8 | (first + 2) << 16 | (first + 3) << 24);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static int userVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.getInt(1);
+        }
+    }
+
+    private static boolean hasTable(Connection connection, String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type='table' AND name='" + table + "'")) {
+            return rs.next();
+        }
+    }
+
+    private static void assertMigrated(SaveData data, int first) {
+        for (int gem = 0; gem < GemType.values().length; gem++) {
+            assertEquals(first + gem, data.gems[0][gem]);
+            assertEquals(first + 100 + gem, data.gems[1][gem]);
+        }
+        assertArrayEquals(new int[]{first, first + 2}, data.health);
+        assertArrayEquals(new int[]{first + 1, first + 3}, data.maxHealth);
+        assertArrayEquals(new boolean[]{false, false}, data.nextTurn);
+        assertEquals(0, data.currentPlayer);
+        // Version 0 never saved the board, so the game starts on a new one.
+        assertNull(data.board);
+        assertEquals(0L, data.randomState);
+    }
+
+    @Test
+    void migratesTheVersion0Table() throws SQLException {
+        String url = "jdbc:sqlite:" + dir.resolve("puzzle.db");
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(GAME_SAVE);
+            insertVersion0(connection, "save0", 10);
+            insertVersion0(connection, "save1", 40);
+            // Loading always picked the first row of a name, the later one is dropped.
+            insertVersion0(connection, "save0", 70);
+        }
+
+        Database database = new Database(dir.resolve("puzzle.db").toString());
+        database.create();
+        assertEquals(List.of("save0", "save1"), database.getAllSavesName());
+        assertMigrated(database.getGems("save0"), 10);
+        assertMigrated(database.getGems("save1"), 40);
+        database.close();
+
+        try (Connection connection = DriverManager.getConnection(url)) {
+            assertEquals(Database.SCHEMA_VERSION, userVersion(connection));
+            assertEquals(1, userVersion(connection));
+            assertFalse(hasTable(connection, "game_save"));
+
+            // A game_save table that shows up later is not migrated again.
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(GAME_SAVE);
+            }
+            insertVersion0(connection, "save2", 20);
+        }
+
+        database.create();
+        assertEquals(List.of("save0", "save1"), database.getAllSavesName());
+        assertMigrated(database.getGems("save0"), 10);
+        database.close();
+
+        try (Connection connection = DriverManager.getConnection(url)) {
+            assertEquals(1, userVersion(connection));
+            assertTrue(hasTable(connection, "game_save"));
+        }
+    }
+
+    @Test
+    void refusesANewerSchema() throws SQLException {
+        String url = "jdbc:sqlite:" + dir.resolve("puzzle.db");
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + (Database.SCHEMA_VERSION + 1));
+        }
+
+        Database database = new Database(dir.resolve("puzzle.db").toString());
+        database.create();
+        database.close();
+
+        try (Connection connection = DriverManager.getConnection(url)) {
+            assertEquals(Database.SCHEMA_VERSION + 1, userVersion(connection));
+            assertFalse(hasTable(connection, "save"));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirtyRegionTest {
+    private static final int WIDTH = 1024;
+    private static final int HEIGHT = 768;
+
+    private static void assertRect(DirtyRegion region, int i, int x, int y, int w, int h) {
+        assertEquals(new Rectangle(x, y, w, h), region.get(i, new Rectangle()));
+    }
+
+    @Test
+    void mergesTouchingAndOverlappingRectangles() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        region.add(0, 0, 10, 10);
+        region.add(10, 0, 10, 10);
+        assertEquals(1, region.getCount());
+        assertRect(region, 0, 0, 0, 20, 10);
+
+        region.add(15, 5, 10, 10);
+        assertEquals(1, region.getCount());
+        assertRect(region, 0, 0, 0, 25, 15);
+
+        // Apart, until a third one grows over the gap and takes both in.
+        region.add(40, 0, 10, 10);
+        assertEquals(2, region.getCount());
+        region.add(25, 0, 15, 10);
+        assertEquals(1, region.getCount());
+        assertRect(region, 0, 0, 0, 50, 15);
+    }
+
+    @Test
+    void mergesIntoTheRectangleItGrowsTheLeastPastMaxRects() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        for (int i = 0; i < DirtyRegion.MAX_RECTS; i++) {
+            region.add(i * 100, 0, 10, 10);
+        }
+        assertEquals(DirtyRegion.MAX_RECTS, region.getCount());
+
+        // Closest to the last one, and touches none of them.
+        int last = DirtyRegion.MAX_RECTS - 1;
+        region.add(last * 100 + 5, 20, 10, 10);
+        assertEquals(DirtyRegion.MAX_RECTS, region.getCount());
+        assertRect(region, last, last * 100, 0, 15, 30);
+        for (int i = 0; i < last; i++) {
+            assertRect(region, i, i * 100, 0, 10, 10);
+        }
+    }
+
+    @Test
+    void clipsToTheScreen() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        region.add(-5, -5, 10, 10);
+        region.add(WIDTH - 4, HEIGHT - 8, 10, 10);
+        assertEquals(2, region.getCount());
+        assertRect(region, 0, 0, 0, 5, 5);
+        assertRect(region, 1, WIDTH - 4, HEIGHT - 8, 4, 8);
+
+        // Nothing left once clipped.
+        region.add(WIDTH, 0, 10, 10);
+        region.add(0, -10, 10, 10);
+        region.add(20, 20, 0, 10);
+        assertEquals(2, region.getCount());
+    }
+
+    @Test
+    void addAllCoversTheScreenOnce() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        region.add(0, 0, 10, 10);
+        region.add(100, 100, 10, 10);
+        region.addAll();
+        assertEquals(1, region.getCount());
+        assertRect(region, 0, 0, 0, WIDTH, HEIGHT);
+        assertEquals(1.0, region.getCoverage());
+
+        region.clear();
+        assertTrue(region.isEmpty());
+        assertEquals(0.0, region.getCoverage());
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Renders the scripted battle and checks every captured frame against the golden frames, at half
+// size to keep them small. After a change to what the battle looks like, check the diff images in
+// build/golden, then render the frames again:
+// gradle renderFrames -PrenderArgs="render src/test/resources/golden 512 384"
+class GoldenFramesTest {
+    private static final File GOLDEN = new File("src/test/resources/golden");
+    private static final File OUTPUT = new File("build/golden");
+
+    @Test
+    void battleMatchesTheGoldenFrames() throws IOException {
+        OffscreenTarget target = new OffscreenTarget(RenderTarget.WIDTH / 2, RenderTarget.HEIGHT / 2);
+        int failed = OffscreenRenderer.compare(new ScriptedBattle(), target, GOLDEN, OUTPUT);
+        assertEquals(0, failed, "frames differ from the golden ones, see " + OUTPUT);
+    }
+}
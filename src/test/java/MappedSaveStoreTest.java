@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedSaveStoreTest {
+    @TempDir
+    Path dir;
+
+    private static SaveData saveData(int seed) {
+        SaveData data = new SaveData();
+        data.currentPlayer = seed & 1;
+        data.randomState = 0x123456789L * seed;
+        data.board = new byte[SaveData.CELLS];
+        for (int cell = 0; cell < SaveData.CELLS; cell++) {
+            data.board[cell] = (byte) ((cell + seed) % GemType.values().length);
+        }
+        data.board[seed % SaveData.CELLS] = SaveData.EMPTY;
+        for (int player = 0; player < SaveData.PLAYERS; player++) {
+            data.health[player] = seed * 10 + player;
+            data.maxHealth[player] = seed * 10 + 5;
+            data.nextTurn[player] = (seed + player) % 2 == 0;
+            for (int gem = 0; gem < GemType.values().length; gem++) {
+                data.gems[player][gem] = seed * 1000 + player * 100 + gem;
+            }
+        }
+        return data;
+    }
+
+    private static void assertSameSave(SaveData expected, SaveData actual) {
+        assertNotNull(actual);
+        assertEquals(expected.currentPlayer, actual.currentPlayer);
+        assertEquals(expected.randomState, actual.randomState);
+        assertArrayEquals(expected.board, actual.board);
+        assertArrayEquals(expected.health, actual.health);
+        assertArrayEquals(expected.maxHealth, actual.maxHealth);
+        assertArrayEquals(expected.nextTurn, actual.nextTurn);
+        for (int player = 0; player < SaveData.PLAYERS; player++) {
+            assertArrayEquals(expected.gems[player], actual.gems[player]);
+        }
+    }
+
+    // Flips a byte in the middle of the bytes that differ between the two copies of the file,
+    // which is where the last write went.
+    private static void corruptChange(File file, byte[] before) throws IOException {
+        byte[] after = Files.readAllBytes(file.toPath());
+        int first = 0;
+        while (first < after.length && before[first] == after[first]) {
+            first++;
+        }
+        int last = after.length - 1;
+        while (last > first && before[last] == after[last]) {
+            last--;
+        }
+        assertTrue(first <= last);
+
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            int offset = (first + last) / 2;
+            out.seek(offset);
+            out.write(after[offset] ^ 0x5A);
+        }
+    }
+
+    @Test
+    void fallsBackToThePreviousSaveWhenTheNewestIsTorn() throws IOException {
+        File file = dir.resolve("puzzle.sav").toFile();
+        MappedSaveStore store = new MappedSaveStore(file);
+        store.create();
+        store.insert("save0", saveData(1));
+        store.insert("save1", saveData(2));
+        store.close();
+        byte[] before = Files.readAllBytes(file.toPath());
+
+        store.create();
+        store.update("save0", saveData(3));
+        store.close();
+        corruptChange(file, before);
+
+        store = new MappedSaveStore(file);
+        store.create();
+        assertEquals(List.of("save0", "save1"), store.getAllSavesName());
+        assertSameSave(saveData(1), store.getGems("save0"));
+        assertSameSave(saveData(2), store.getGems("save1"));
+
+        // The next write goes over the torn copy, and wins on the next open.
+        store.update("save0", saveData(4));
+        store.close();
+        store = new MappedSaveStore(file);
+        assertSameSave(saveData(4), store.getGems("save0"));
+        store.close();
+    }
+
+    @Test
+    void dropsTheSelectionWhenTheHeaderIsTorn() throws IOException {
+        File file = dir.resolve("puzzle.sav").toFile();
+        MappedSaveStore store = new MappedSaveStore(file);
+        store.create();
+        store.insert("save0", saveData(1));
+        store.close();
+        byte[] before = Files.readAllBytes(file.toPath());
+
+        store.setSelected("save0");
+        store.close();
+        store = new MappedSaveStore(file);
+        assertEquals("save0", store.getSelected());
+        store.close();
+        corruptChange(file, before);
+
+        store = new MappedSaveStore(file);
+        assertNull(store.getSelected());
+        assertSameSave(saveData(1), store.getGems("save0"));
+        store.close();
+    }
+
+    @Test
+    void keepsADeleteAfterReopening() throws IOException {
+        File file = dir.resolve("puzzle.sav").toFile();
+        MappedSaveStore store = new MappedSaveStore(file);
+        store.create();
+        store.transaction(() -> {
+            store.insert("save0", saveData(1));
+            store.insert("save1", saveData(2));
+            store.insert("save2", saveData(3));
+        });
+        store.delete("save1");
+        store.close();
+
+        MappedSaveStore reopened = new MappedSaveStore(file);
+        reopened.create();
+        assertEquals(List.of("save0", "save2"), reopened.getAllSavesName());
+        assertNull(reopened.getGems("save1"));
+        assertSameSave(saveData(3), reopened.getGems("save2"));
+
+        // The free slot is taken again by the next new save.
+        reopened.insert("save3", saveData(4));
+        reopened.close();
+        reopened = new MappedSaveStore(file);
+        assertEquals(List.of("save0", "save3", "save2"), reopened.getAllSavesName());
+        assertSameSave(saveData(4), reopened.getGems("save3"));
+        reopened.close();
+    }
+
+    @Test
+    void convertsFromSqliteAndBack() throws IOException {
+        // The selected save of a database is kept next to it, so each one gets its own directory.
+        Files.createDirectories(dir.resolve("from"));
+        Files.createDirectories(dir.resolve("to"));
+        File from = dir.resolve("from/puzzle.db").toFile();
+        File mapped = dir.resolve("puzzle.sav").toFile();
+        File to = dir.resolve("to/puzzle.db").toFile();
+
+        try (SaveStore store = SaveStore.open(from)) {
+            assertTrue(store instanceof Database);
+            store.create();
+            store.insert("save0", saveData(1));
+            store.insert("save1", saveData(2));
+            SaveData noBoard = saveData(3);
+            noBoard.board = null;
+            store.insert("save2", noBoard);
+            store.setSelected("save1");
+        }
+
+        SaveConverter.main(new String[]{from.getPath(), mapped.getPath()});
+        try (SaveStore store = SaveStore.open(mapped)) {
+            assertTrue(store instanceof MappedSaveStore);
+            assertEquals(List.of("save0", "save1", "save2"), store.getAllSavesName());
+            assertEquals("save1", store.getSelected());
+        }
+
+        SaveConverter.main(new String[]{mapped.getPath(), to.getPath()});
+        try (SaveStore store = SaveStore.open(to)) {
+            store.create();
+            assertEquals(List.of("save0", "save1", "save2"), store.getAllSavesName());
+            assertSameSave(saveData(1), store.getGems("save0"));
+            assertSameSave(saveData(2), store.getGems("save1"));
+            SaveData noBoard = store.getGems("save2");
+            assertNull(noBoard.board);
+            assertNotEquals(0L, noBoard.randomState);
+            assertArrayEquals(saveData(3).gems[1], noBoard.gems[1]);
+            assertEquals("save1", store.getSelected());
+        }
+    }
+}
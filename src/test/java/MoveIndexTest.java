@@ -0,0 +1,199 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveIndexTest {
+    private static final GemType[] TYPES = GemType.values();
+    private static final int SIZE = BitBoard.SIZE;
+
+    // A board without runs, filled the way a fresh grid is: each cell avoids the type that
+    // would complete a run with the two cells on its left or the two above it.
+    private static GemType[][] runFreeCells(Random random, int types) {
+        GemType[][] cells = new GemType[SIZE][SIZE];
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                GemType type;
+                do {
+                    type = TYPES[random.nextInt(types)];
+                } while ((column >= 2 && cells[row][column - 1] == type && cells[row][column - 2] == type)
+                        || (row >= 2 && cells[row - 1][column] == type && cells[row - 2][column] == type));
+                cells[row][column] = type;
+            }
+        }
+        return cells;
+    }
+
+    private static boolean hasRun(GemType[][] cells) {
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                GemType type = cells[row][column];
+                if (column + 2 < SIZE && cells[row][column + 1] == type && cells[row][column + 2] == type) {
+                    return true;
+                }
+                if (row + 2 < SIZE && cells[row + 1][column] == type && cells[row + 2][column] == type) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean swapMakesRun(GemType[][] cells, int rowA, int columnA, int rowB, int columnB) {
+        GemType type = cells[rowA][columnA];
+        cells[rowA][columnA] = cells[rowB][columnB];
+        cells[rowB][columnB] = type;
+        boolean run = hasRun(cells);
+        cells[rowB][columnB] = cells[rowA][columnA];
+        cells[rowA][columnA] = type;
+        return run;
+    }
+
+    private static void fill(BitBoard board, GemType[][] cells) {
+        board.clear();
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                board.set(row, column, cells[row][column]);
+            }
+        }
+    }
+
+    // Checks every adjacent swap of the board against the index.
+    private static void assertMatchesBruteForce(MoveIndex index, GemType[][] cells, int[] moves) {
+        long rows = 0L;
+        long columns = 0L;
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                int cell = BitBoard.index(row, column);
+                if (column + 1 < SIZE) {
+                    boolean legal = swapMakesRun(cells, row, column, row, column + 1);
+                    assertEquals(legal, index.isLegal(row, column, row, column + 1));
+                    assertEquals(legal, index.isLegal(row, column + 1, row, column));
+                    rows |= legal ? 1L << cell : 0L;
+                }
+                if (row + 1 < SIZE) {
+                    boolean legal = swapMakesRun(cells, row, column, row + 1, column);
+                    assertEquals(legal, index.isLegal(row, column, row + 1, column));
+                    assertEquals(legal, index.isLegal(row + 1, column, row, column));
+                    columns |= legal ? 1L << cell : 0L;
+                }
+            }
+        }
+
+        assertEquals(rows, index.getRowMoves());
+        assertEquals(columns, index.getColumnMoves());
+        assertEquals(rows != 0L || columns != 0L, index.hasMoves());
+
+        int count = index.getMoves(moves);
+        assertEquals(Long.bitCount(rows) + Long.bitCount(columns), count);
+        for (int m = 0; m < count; m++) {
+            int cell = MoveIndex.getCell(moves[m]);
+            int target = MoveIndex.getTarget(moves[m]);
+            assertTrue(swapMakesRun(cells, BitBoard.row(cell), BitBoard.column(cell), BitBoard.row(target), BitBoard.column(target)));
+        }
+    }
+
+    @Test
+    void matchesBruteForceSwappingOnRunFreeBoards() {
+        Random random = new Random(3);
+        BitBoard board = new BitBoard();
+        MoveIndex index = new MoveIndex(board, SIZE, SIZE);
+        int[] moves = new int[MoveIndex.MAX_MOVES];
+
+        for (int i = 0; i < 5000; i++) {
+            GemType[][] cells = runFreeCells(random, 3 + random.nextInt(TYPES.length - 2));
+            fill(board, cells);
+            assertMatchesBruteForce(index, cells, moves);
+        }
+    }
+
+    @Test
+    void findsNoMovesOnADeadBoard() {
+        // Every type repeats only seven cells apart along a line, too far for a single swap.
+        GemType[][] cells = new GemType[SIZE][SIZE];
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                cells[row][column] = TYPES[(row * 3 + column) % TYPES.length];
+            }
+        }
+        BitBoard board = new BitBoard();
+        MoveIndex index = new MoveIndex(board, SIZE, SIZE);
+        fill(board, cells);
+
+        assertFalse(index.hasMoves());
+        assertMatchesBruteForce(index, cells, new int[MoveIndex.MAX_MOVES]);
+    }
+
+    @Test
+    void refreshMatchesAFreshIndex() {
+        Random random = new Random(4);
+        BitBoard board = new BitBoard();
+        MoveIndex index = new MoveIndex(board, SIZE, SIZE);
+        fill(board, runFreeCells(random, TYPES.length));
+
+        for (int i = 0; i < 50000; i++) {
+            int row = random.nextInt(SIZE);
+            int column = random.nextInt(SIZE);
+            switch (random.nextInt(10)) {
+                case 0 -> fill(board, runFreeCells(random, 3 + random.nextInt(TYPES.length - 2)));
+                case 1, 2, 3 -> board.set(row, column, TYPES[random.nextInt(TYPES.length)]);
+                default -> {
+                    if (random.nextBoolean() && column + 1 < SIZE) {
+                        board.swap(row, column, row, column + 1);
+                    } else if (row + 1 < SIZE) {
+                        board.swap(row, column, row + 1, column);
+                    }
+                }
+            }
+
+            // Read only every few changes, so some refreshes see several types changed at once.
+            if (random.nextInt(3) == 0) {
+                MoveIndex fresh = new MoveIndex(board, SIZE, SIZE);
+                assertEquals(fresh.getRowMoves(), index.getRowMoves());
+                assertEquals(fresh.getColumnMoves(), index.getColumnMoves());
+                assertEquals(fresh.hasMoves(), index.hasMoves());
+                assertEquals(fresh.getMoveCount(), index.getMoveCount());
+            }
+        }
+    }
+
+    @Test
+    void rejectsCellsThatAreNotAdjacent() {
+        BitBoard board = new BitBoard();
+        MoveIndex index = new MoveIndex(board, SIZE, SIZE);
+        fill(board, runFreeCells(new Random(5), 3));
+
+        assertFalse(index.isLegal(0, 0, 0, 0));
+        assertFalse(index.isLegal(0, 0, 1, 1));
+        assertFalse(index.isLegal(0, 0, 0, 2));
+        // Cells 7 and 8 are next to each other in the masks, but on different rows.
+        assertFalse(index.isLegal(0, SIZE - 1, 1, 0));
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * MIT License
+ * 
+ * Copyright (c) 2024 - Jeff Oliveira
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SaveWriterTest {
+    // Keeps the saves in memory and logs every write. A transaction can be held open, so the
+    // requests made meanwhile are merged in the next batch.
+    private static class MemoryStore implements SaveStore {
+        final Map<String, SaveData> saves = Collections.synchronizedMap(new LinkedHashMap<>());
+        final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+        volatile CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch gate = new CountDownLatch(0);
+        volatile IOException failure;
+        volatile String selected;
+        volatile int reads;
+        volatile boolean closed;
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public void transaction(Transaction body) throws IOException {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            // Failing before the writes stands for a rolled back transaction.
+            if (failure != null) {
+                throw failure;
+            }
+            body.run();
+        }
+
+        @Override
+        public void insert(String saveName, SaveData saveData) {
+            writes.add("insert " + saveName);
+            saves.put(saveName, saveData);
+        }
+
+        @Override
+        public void update(String saveName, SaveData saveData) {
+            writes.add("update " + saveName);
+            saves.replace(saveName, saveData);
+        }
+
+        @Override
+        public void delete(String saveName) {
+            writes.add("delete " + saveName);
+            saves.remove(saveName);
+        }
+
+        @Override
+        public SaveData getGems(String saveName) {
+            reads++;
+            return saves.get(saveName);
+        }
+
+        @Override
+        public List<String> getAllSavesName() {
+            reads++;
+            synchronized (saves) {
+                return new ArrayList<>(saves.keySet());
+            }
+        }
+
+        @Override
+        public String getSelected() {
+            return selected;
+        }
+
+        @Override
+        public void setSelected(String saveName) {
+            selected = saveName;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    // Keeps the writer busy on a save of its own until release, everything asked meanwhile waits.
+    private static void hold(MemoryStore store, SaveWriter writer) throws InterruptedException {
+        store.entered = new CountDownLatch(1);
+        store.gate = new CountDownLatch(1);
+        writer.insert("held", new SaveData(), null);
+        assertTrue(store.entered.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void release(MemoryStore store, SaveWriter writer) {
+        store.gate.countDown();
+        writer.flush();
+    }
+
+    @Test
+    void keepsAnUpdatedInsertAnInsert() throws InterruptedException {
+        MemoryStore store = new MemoryStore();
+        SaveWriter writer = new SaveWriter(store);
+        hold(store, writer);
+
+        SaveData updated = new SaveData();
+        writer.insert("save0", new SaveData(), null);
+        writer.update("save0", updated, null);
+        assertSame(updated, writer.get("save0"));
+        release(store, writer);
+
+        assertEquals(List.of("insert held", "insert save0"), store.writes);
+        assertSame(updated, store.saves.get("save0"));
+        writer.close();
+    }
+
+    @Test
+    void ignoresAnUpdateOfADeletedSave() throws InterruptedException {
+        MemoryStore store = new MemoryStore();
+        store.saves.put("save0", new SaveData());
+        SaveWriter writer = new SaveWriter(store);
+        hold(store, writer);
+
+        writer.delete("save0", null);
+        writer.update("save0", new SaveData(), null);
+        assertNull(writer.get("save0"));
+        release(store, writer);
+
+        assertEquals(List.of("insert held", "delete save0"), store.writes);
+        assertFalse(store.saves.containsKey("save0"));
+        assertNull(writer.get("save0"));
+        writer.close();
+    }
+
+    @Test
+    void insertsAgainAfterADelete() throws InterruptedException {
+        MemoryStore store = new MemoryStore();
+        store.saves.put("save0", new SaveData());
+        SaveWriter writer = new SaveWriter(store);
+        hold(store, writer);
+
+        SaveData inserted = new SaveData();
+        writer.delete("save0", null);
+        writer.insert("save0", inserted, null);
+        assertSame(inserted, writer.get("save0"));
+        release(store, writer);
+
+        assertEquals(List.of("insert held", "delete save0", "insert save0"), store.writes);
+        assertSame(inserted, store.saves.get("save0"));
+        assertSame(inserted, writer.get("save0"));
+        writer.close();
+    }
+
+    @Test
+    void readsThroughTheRequestsNotWrittenYet() throws InterruptedException {
+        MemoryStore store = new MemoryStore();
+        SaveData first = new SaveData();
+        store.saves.put("save0", first);
+        store.saves.put("save1", new SaveData());
+        SaveWriter writer = new SaveWriter(store);
+        int reads = store.reads;
+        hold(store, writer);
+
+        // The held save is being written, save2 and the delete of save1 are still queued.
+        SaveData added = new SaveData();
+        writer.insert("save2", added, null);
+        writer.delete("save1", null);
+        assertEquals(List.of("save0", "held", "save2"), writer.getAllSavesName());
+        assertSame(first, writer.get("save0"));
+        assertSame(added, writer.get("save2"));
+        assertNull(writer.get("save1"));
+        assertNotNull(writer.get("held"));
+        // None of it waited on the store, which is still in the middle of its transaction.
+        assertEquals(reads, store.reads);
+        release(store, writer);
+
+        assertEquals(List.of("save0", "held", "save2"), writer.getAllSavesName());
+        assertEquals(List.of("save0", "held", "save2"), store.getAllSavesName());
+        writer.close();
+    }
+
+    @Test
+    void flushAndCloseDrainTheQueue() {
+        MemoryStore store = new MemoryStore();
+        SaveWriter writer = new SaveWriter(store);
+
+        SaveData first = new SaveData();
+        writer.insert("save0", first, null);
+        writer.flush();
+        assertSame(first, store.saves.get("save0"));
+
+        SaveData second = new SaveData();
+        writer.insert("save1", second, null);
+        writer.select("save1");
+        writer.close();
+        assertSame(second, store.saves.get("save1"));
+        assertEquals("save1", store.selected);
+        assertTrue(store.closed);
+
+        assertThrows(IllegalStateException.class, () -> writer.insert("save2", new SaveData(), null));
+    }
+
+    @Test
+    void passesTheErrorToEveryCallback() {
+        MemoryStore store = new MemoryStore();
+        SaveWriter writer = new SaveWriter(store);
+        List<String> done = Collections.synchronizedList(new ArrayList<>());
+        List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+        SaveWriter.Callback callback = (slot, error) -> {
+            done.add(slot);
+            errors.add(error);
+        };
+
+        IOException failure = new IOException("Disk full");
+        store.failure = failure;
+        writer.insert("save0", new SaveData(), callback);
+        writer.update("save0", new SaveData(), callback);
+        writer.flush();
+        assertEquals(List.of("save0", "save0"), done);
+        assertSame(failure, errors.get(0));
+        assertSame(failure, errors.get(1));
+        // Nothing was written, so the save is not there for reads either.
+        assertNull(writer.get("save0"));
+        assertEquals(List.of(), writer.getAllSavesName());
+
+        store.failure = null;
+        writer.insert("save1", new SaveData(), callback);
+        writer.flush();
+        assertEquals(List.of("save0", "save0", "save1"), done);
+        assertNull(errors.get(2));
+        writer.close();
+    }
+}